@@ -0,0 +1,6 @@
+-- Upgrades a database created before the vote journal recorded its applied segments.
+-- Required before enabling vote.write-behind.enabled with the journal, the service fails to start without it.
+CREATE TABLE IF NOT EXISTS applied_vote_journal_segments
+(
+    segment_id        VARCHAR(255) PRIMARY KEY
+);
@@ -0,0 +1,9 @@
+-- Upgrades a database created before voting items had counter slots.
+-- Only required before enabling vote.counter-slots.enabled, the slots are not read otherwise.
+CREATE TABLE IF NOT EXISTS voting_item_counter_slots
+(
+    voting_item_id    INT REFERENCES voting_item_options (voting_item_id) ON DELETE CASCADE,
+    slot              INT,
+    vote_count        INT,
+    PRIMARY KEY (voting_item_id, slot)
+);
@@ -0,0 +1,5 @@
+-- Upgrades a database created before voting item IDs were allocated by the service in blocks of 50.
+-- Required before deploying this version: the service fails to start while the sequence's increment differs from
+-- the allocation size of VotingItem's ID generator.
+-- The next block starts after the sequence's current value, so it does not overlap the existing voting item IDs.
+ALTER SEQUENCE voting_item_options_voting_item_id_seq INCREMENT BY 50;
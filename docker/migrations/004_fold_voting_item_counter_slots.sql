@@ -0,0 +1,12 @@
+-- Folds the counter slots of vote.counter-slots.enabled into their voting items.
+-- Required before disabling vote.counter-slots.enabled: the slots are only read while it is enabled, so their votes
+-- are lost without it, and the voting items that had votes removed from their own row show a negative vote count.
+-- A single statement, so a vote added to a slot while it runs is either folded or kept in its slot.
+WITH folded_slots AS (
+    DELETE FROM voting_item_counter_slots
+    RETURNING voting_item_id, vote_count
+)
+UPDATE voting_item_options v
+SET vote_count = v.vote_count + s.slot_vote_count
+FROM (SELECT voting_item_id, SUM(vote_count) AS slot_vote_count FROM folded_slots GROUP BY voting_item_id) s
+WHERE v.voting_item_id = s.voting_item_id;
@@ -0,0 +1,5 @@
+-- Upgrades a database created before voting items were indexed by their poll.
+-- Loading the voting items of a page of polls, deleting the polls of a group, and the foreign key check of a deleted
+-- poll all look voting items up by poll_id, which scans the whole table without this index.
+-- CONCURRENTLY does not block votes and new polls while the index is built, so it can not run in a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_voting_item_options_poll_id ON voting_item_options (poll_id);
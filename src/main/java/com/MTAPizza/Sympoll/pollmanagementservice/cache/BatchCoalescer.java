@@ -0,0 +1,146 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Coalesces the lookups of concurrent callers into shared batch calls (DataLoader style).
+ * The first caller of a batch waits for the batch window to pass (or for the batch to reach its maximal size),
+ * while the lookups of other callers join the batch. A caller with no other caller in flight does not wait,
+ * as there is nothing to coalesce its lookup with, so the window only delays lookups under concurrency. It then loads all of the batch's keys in a single call,
+ * and every caller gets the values of its own keys. A key looked up by several callers is loaded once.
+ * The call runs on the first caller's thread, so no extra threads are needed.
+ * The number of batch calls and loaded keys are counted in 'batch.coalescer.batches' and 'batch.coalescer.keys'.
+ */
+public class BatchCoalescer<K, V> {
+    private final Function<Set<K>, Map<K, V>> batchLoader;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Counter batchesCounter;
+    private final Counter keysCounter;
+    private final AtomicInteger activeCallers = new AtomicInteger();
+    private Batch currentBatch;
+
+    /**
+     * @param name Name of the coalesced lookup, used as the metrics' tag.
+     * @param batchLoader Loads the values of a set of keys, keys without a value may be left out of its result.
+     * @param window How long the first caller of a batch waits for other lookups, zero to load every lookup on its own.
+     * @param maxBatchSize Number of keys after which a batch is loaded without waiting for the rest of the window.
+     */
+    public BatchCoalescer(String name, Function<Set<K>, Map<K, V>> batchLoader, Duration window, int maxBatchSize,
+                          MeterRegistry meterRegistry) {
+        this.batchLoader = batchLoader;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.batchesCounter = meterRegistry.counter("batch.coalescer.batches", "name", name);
+        this.keysCounter = meterRegistry.counter("batch.coalescer.keys", "name", name);
+    }
+
+    /**
+     * Loads the values of the given keys, in a batch shared with concurrent callers.
+     * @return A map of the keys to their values, without keys that have no value.
+     * @throws RuntimeException The exception thrown by the batch call.
+     */
+    public Map<K, V> load(Set<? extends K> keys) {
+        if (windowNanos <= 0) {
+            return loadNow(Set.copyOf(keys));
+        }
+
+        activeCallers.incrementAndGet();
+        try {
+            return loadInBatch(keys);
+        } finally {
+            activeCallers.decrementAndGet();
+        }
+    }
+
+    private Map<K, V> loadInBatch(Set<? extends K> keys) {
+        Batch batch;
+        boolean isLeader;
+        Map<K, CompletableFuture<V>> values = new HashMap<>();
+        synchronized (this) {
+            isLeader = (currentBatch == null);
+            if (isLeader) {
+                currentBatch = new Batch();
+            }
+            batch = currentBatch;
+            keys.forEach(key -> values.put(key, batch.values.computeIfAbsent(key, k -> new CompletableFuture<>())));
+            // A lone caller loads at once, the window would only add its latency
+            if (batch.values.size() >= maxBatchSize || (isLeader && activeCallers.get() == 1)) {
+                closeCurrentBatch();
+            }
+        }
+
+        if (isLeader) {
+            batch.awaitFullOrWindow();
+            synchronized (this) {
+                if (currentBatch == batch) {
+                    closeCurrentBatch();
+                }
+            }
+            batch.load();
+        }
+
+        Map<K, V> result = new HashMap<>();
+        try {
+            values.forEach((key, value) -> {
+                V loadedValue = value.join();
+                if (loadedValue != null) {
+                    result.put(key, loadedValue);
+                }
+            });
+        } catch (CompletionException e) {
+            throw (e.getCause() instanceof RuntimeException cause) ? cause : e;
+        }
+        return result;
+    }
+
+    private Map<K, V> loadNow(Set<K> keys) {
+        batchesCounter.increment();
+        keysCounter.increment(keys.size());
+        return batchLoader.apply(keys);
+    }
+
+    /**
+     * Closes the current batch to new lookups, and wakes up its first caller. Must be called while synchronized.
+     */
+    private void closeCurrentBatch() {
+        currentBatch.full.countDown();
+        currentBatch = null;
+    }
+
+    private class Batch {
+        private final Map<K, CompletableFuture<V>> values = new LinkedHashMap<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+
+        private void awaitFullOrWindow() {
+            try {
+                full.await(windowNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void load() {
+            // The batch is closed, so its keys are not modified anymore
+            try {
+                Map<K, V> loadedValues = loadNow(values.keySet());
+                values.forEach((key, value) -> value.complete(loadedValues.get(key)));
+            } catch (Throwable e) {
+                values.values().forEach(value -> value.completeExceptionally(e));
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.cache;
+
+import com.MTAPizza.Sympoll.pollmanagementservice.client.GroupClient;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.group.GroupResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.validator.group.GroupIdExistsResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.exception.request.RequestFailedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Local cache of groups fetched from the group service, keyed by group ID.
+ * It serves both group existence checks and groups' data, so a warm group feed request makes no group service calls.
+ * Groups returned by the group service's data list also count as existing.
+ * Groups the group service does not know, and groups missing from its data list, are cached as well, with a shorter TTL.
+ * The last known existing groups are kept for longer, and served when the group service fails
+ * (or its circuit breaker is open) instead of failing the existence check or returning no data.
+ * Hit, miss and eviction counters are exposed as the 'groups' cache metrics.
+ */
+@Slf4j
+@Component
+public class GroupCache {
+    private final GroupClient groupClient;
+    private final Executor groupServiceExecutor;
+    private final Cache<String, GroupEntry> groups;
+    private final Cache<String, GroupEntry> lastKnownGroups;
+    private final BatchCoalescer<String, GroupResponse> groupFetches;
+
+    public GroupCache(GroupClient groupClient,
+                      @Qualifier("groupServiceExecutor") Executor groupServiceExecutor,
+                      MeterRegistry meterRegistry,
+                      @Value("${cache.groups.maximum-size:10000}") long maximumSize,
+                      @Value("${cache.groups.ttl-seconds:300}") long ttlSeconds,
+                      @Value("${cache.groups.negative-ttl-seconds:30}") long negativeTtlSeconds,
+                      @Value("${cache.groups.stale-ttl-seconds:86400}") long staleTtlSeconds,
+                      @Value("${cache.groups.batch-window-ms:2}") long batchWindowMs,
+                      @Value("${cache.groups.max-batch-size:100}") int maxBatchSize) {
+        this.groupClient = groupClient;
+        this.groupServiceExecutor = groupServiceExecutor;
+        this.groups = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new NegativeCachingExpiry<String, GroupEntry>(
+                        GroupEntry::isPositive, Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(negativeTtlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, groups, "groups");
+        this.lastKnownGroups = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(staleTtlSeconds))
+                .build();
+        this.groupFetches = new BatchCoalescer<>("groups", this::fetchGroups, Duration.ofMillis(batchWindowMs), maxBatchSize, meterRegistry);
+    }
+
+    /**
+     * Checks if a group exists, the group service is only asked if the group is not cached.
+     * If the group service is unavailable (open circuit breaker, server error or I/O failure), a group in the last
+     * known groups is served as existing. Other failures, such as a rejected request, are rethrown.
+     * @param groupId ID of the group.
+     * @return True if the group exists.
+     */
+    public boolean groupExists(String groupId) {
+        try {
+            // Read once: a concurrent data fetch may cache the group without a known existence at any time
+            GroupEntry group = groups.get(groupId, id -> checkGroupExists(id, false));
+            if (group.exists() == null) {
+                // Missing from a group data fetch, its existence was not checked yet
+                group = checkGroupExists(groupId, true);
+                groups.put(groupId, group);
+            }
+            return Boolean.TRUE.equals(group.exists());
+        } catch (CallNotPermittedException | HttpServerErrorException | ResourceAccessException e) {
+            if (lastKnownGroups.getIfPresent(groupId) == null) {
+                throw e;
+            }
+            log.error("Failed to check if group {} exists, serving the last known group", groupId, e);
+            return true;
+        }
+    }
+
+    /**
+     * Checks which of the given groups do not exist, in close to a single group service round trip.
+     * Groups which are not cached are first fetched with a single group data list call, and groups missing from it
+     * are checked one by one, concurrently on the group service executor.
+     * @param groupIds List of group IDs.
+     * @return The IDs of the groups that do not exist, in the order they were given.
+     */
+    public List<String> findMissingGroupIds(List<String> groupIds) {
+        // Groups cached without a known existence (missing from a group data fetch) are checked as well
+        Set<String> uncachedGroupIds = new HashSet<>(groupIds);
+        groups.getAllPresent(groupIds).forEach((groupId, group) -> {
+            if (group.exists() != null) {
+                uncachedGroupIds.remove(groupId);
+            }
+        });
+        if (!uncachedGroupIds.isEmpty()) {
+            uncachedGroupIds.removeAll(getGroups(uncachedGroupIds).keySet());
+        }
+
+        List<CompletableFuture<Void>> existenceChecks = uncachedGroupIds.stream()
+                .map(this::checkGroupExistsAsync)
+                .toList();
+        try {
+            CompletableFuture.allOf(existenceChecks.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw (e.getCause() instanceof RuntimeException cause) ? cause : e;
+        }
+
+        return groupIds.stream()
+                .filter(groupId -> !groupExists(groupId))
+                .toList();
+    }
+
+    /**
+     * Checks a group's existence on the group service executor, to be cached for the final check.
+     * If the executor rejects the check, it is left to the final check, which runs it on the calling thread.
+     */
+    private CompletableFuture<Void> checkGroupExistsAsync(String groupId) {
+        try {
+            return CompletableFuture.runAsync(() -> groupExists(groupId), groupServiceExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Existence check of group {} was rejected by the group service executor, checking it inline", groupId);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Gets the data of the given groups. Only groups whose data is not cached are fetched, in a single batch call
+     * shared with the concurrent lookups of other requests.
+     * If the group service fails, the last known data of the missing groups is returned instead.
+     * @param groupIds Set of group IDs.
+     * @return A map of group IDs to groups' data, without unknown groups.
+     */
+    public Map<String, GroupResponse> getGroups(Set<String> groupIds) {
+        Map<String, GroupResponse> groupsData = new HashMap<>();
+        Map<String, GroupEntry> cachedGroups = groups.getAllPresent(groupIds);
+        cachedGroups.forEach((groupId, group) -> {
+            if (group.data() != null) {
+                groupsData.put(groupId, group.data());
+            }
+        });
+        // Groups known not to exist, or missing from a previous fetch, are not fetched again
+        Set<String> missingGroupIds = groupIds.stream()
+                .filter(groupId -> !cachedGroups.containsKey(groupId) || isDataNotFetched(cachedGroups.get(groupId)))
+                .collect(Collectors.toSet());
+
+        if (!missingGroupIds.isEmpty()) {
+            try {
+                groupsData.putAll(groupFetches.load(missingGroupIds));
+            } catch (Exception e) {
+                log.error("Failed to fetch groups' data, serving the last known data", e);
+                for (String groupId : missingGroupIds) {
+                    GroupEntry lastKnownGroup = lastKnownGroups.getIfPresent(groupId);
+                    if (lastKnownGroup != null && lastKnownGroup.data() != null) {
+                        groupsData.put(groupId, lastKnownGroup.data());
+                    }
+                }
+            }
+        }
+        return groupsData;
+    }
+
+    private static boolean isDataNotFetched(GroupEntry group) {
+        return Boolean.TRUE.equals(group.exists()) && group.data() == null && !group.dataMissing();
+    }
+
+    private Map<String, GroupResponse> fetchGroups(Set<String> groupIds) {
+        log.info("Batch fetching {} groups' data from group service", groupIds.size());
+        ResponseEntity<List<GroupResponse>> response = groupClient.getGroupDataList(new ArrayList<>(groupIds));
+
+        Map<String, GroupResponse> fetchedGroups = new HashMap<>();
+        Objects.requireNonNull(response.getBody()).forEach(group -> {
+            groups.put(group.groupId(), new GroupEntry(true, group, false));
+            lastKnownGroups.put(group.groupId(), new GroupEntry(true, group, false));
+            fetchedGroups.put(group.groupId(), group);
+        });
+
+        // Requested groups missing from the response are cached without data, keeping their known existence
+        for (String groupId : groupIds) {
+            if (!fetchedGroups.containsKey(groupId)) {
+                GroupEntry cachedGroup = groups.getIfPresent(groupId);
+                groups.put(groupId, new GroupEntry((cachedGroup != null) ? cachedGroup.exists() : null, null, true));
+            }
+        }
+        return fetchedGroups;
+    }
+
+    private GroupEntry checkGroupExists(String groupId, boolean dataMissing) {
+        log.info("Sending validating group id request to group service");
+        ResponseEntity<GroupIdExistsResponse> response = groupClient.checkGroupIdExists(groupId);
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            log.error("Request to group service with group id '{}' failed. Status code {}", groupId, response.getStatusCode());
+            throw new RequestFailedException("Request to group service failed. Status code " + response.getStatusCode());
+        }
+        GroupEntry group = new GroupEntry(Objects.requireNonNull(response.getBody()).isExists(), null, dataMissing);
+        if (group.exists()) {
+            lastKnownGroups.asMap().putIfAbsent(groupId, group);
+        }
+        return group;
+    }
+}
@@ -0,0 +1,22 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.cache;
+
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.group.GroupResponse;
+
+/**
+ * A cached group: whether it exists, and its data if it was already fetched.
+ * A group known to exist from an existence check has no data until its data is fetched.
+ * A group missing from a group data fetch is cached with 'dataMissing', so its data is not fetched again until the
+ * entry expires. Its existence stays unknown (null) until it is checked.
+ */
+record GroupEntry(
+        Boolean exists,
+        GroupResponse data,
+        boolean dataMissing
+) {
+    /**
+     * @return True if the group is known to exist, and its data was fetched or does not need to be fetched again.
+     */
+    boolean isPositive() {
+        return Boolean.TRUE.equals(exists) && !dataMissing;
+    }
+}
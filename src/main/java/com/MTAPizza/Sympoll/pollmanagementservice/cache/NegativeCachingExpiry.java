@@ -0,0 +1,37 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Expires cache entries a fixed time after they are written, with a shorter TTL for negative entries
+ * (resources the downstream service does not know), so they are rechecked sooner.
+ */
+class NegativeCachingExpiry<K, V> implements Expiry<K, V> {
+    private final Predicate<V> isPositive;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+
+    NegativeCachingExpiry(Predicate<V> isPositive, Duration ttl, Duration negativeTtl) {
+        this.isPositive = isPositive;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+    }
+
+    @Override
+    public long expireAfterCreate(K key, V value, long currentTime) {
+        return isPositive.test(value) ? ttlNanos : negativeTtlNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
@@ -0,0 +1,173 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.cache;
+
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.PollResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.voting.item.VotingItemResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Local cache of assembled polls (with their creator's and group's data), keyed by poll ID.
+ * Cached polls are user-independent: none of their voting items is checked, the user's choices are applied on read.
+ * A poll is invalidated once a transaction that changed it commits: when it is updated or deleted,
+ * and on every vote of one of its voting items (found with a reverse index of voting item IDs to poll IDs).
+ * To keep a read that loaded a poll before such a change from caching it after its invalidation,
+ * readers take the cache's version before loading polls, and a poll is only cached if neither it nor any of its
+ * voting items was invalidated since.
+ * Invalidation only reaches this instance's cache: it assumes a single instance of the service. With several replicas,
+ * another replica serves a poll's old title or vote count until its copy expires, so the TTL bounds that staleness
+ * and is kept to a few seconds. Disable the cache, or add a cross-instance invalidation channel, when that is too long.
+ * Hit, miss and eviction counters are exposed as the 'poll-views' cache metrics.
+ */
+@Component
+public class PollViewCache {
+    private static final int NOF_VERSION_STRIPES = 1024;
+    private static final int VOTING_ITEMS_PER_POLL = 16;
+
+    private final boolean enabled;
+    private final Cache<UUID, PollResponse> pollViews;
+    private final Cache<Integer, UUID> votingItemPolls;
+    private final AtomicLong version = new AtomicLong();
+    // Version at which the polls and voting items of each stripe were last invalidated
+    private final AtomicLongArray invalidatedVersions = new AtomicLongArray(NOF_VERSION_STRIPES);
+
+    public PollViewCache(MeterRegistry meterRegistry,
+                         @Value("${cache.poll-views.enabled:true}") boolean enabled,
+                         @Value("${cache.poll-views.maximum-size:10000}") long maximumSize,
+                         @Value("${cache.poll-views.ttl-seconds:5}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.pollViews = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pollViews, "poll-views");
+        // A voting item never moves to another poll, so only a lost index entry could leave a stale poll cached
+        this.votingItemPolls = Caffeine.newBuilder()
+                .maximumSize(maximumSize * VOTING_ITEMS_PER_POLL)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .evictionListener((Integer votingItemId, UUID pollId, RemovalCause cause) -> {
+                    if (pollId != null) {
+                        pollViews.invalidate(pollId);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * @return The cache's current version, to be taken before loading the polls that are cached with {@link #put}.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * @return The cached polls out of the given poll IDs.
+     */
+    public Map<UUID, PollResponse> getAll(Collection<UUID> pollIds) {
+        return enabled ? pollViews.getAllPresent(pollIds) : Collections.emptyMap();
+    }
+
+    /**
+     * Caches a user-independent poll, unless it was invalidated after the given version was taken.
+     * @param pollView The poll, without checked voting items.
+     * @param loadedVersion The cache's version, taken before the poll was loaded.
+     */
+    public void put(PollResponse pollView, long loadedVersion) {
+        if (!enabled || isInvalidatedSince(pollView, loadedVersion)) {
+            return;
+        }
+
+        // Indexed before the poll is cached, so an invalidation that missed the index is seen by the check below
+        for (VotingItemResponse votingItem : pollView.votingItems()) {
+            votingItemPolls.put(votingItem.votingItemId(), pollView.pollId());
+        }
+        pollViews.put(pollView.pollId(), pollView);
+        // The poll may have been invalidated while it was being cached
+        if (isInvalidatedSince(pollView, loadedVersion)) {
+            pollViews.invalidate(pollView.pollId());
+        }
+    }
+
+    /**
+     * Invalidates the given polls once the current transaction commits, or right away if there is none.
+     */
+    public void invalidate(Collection<UUID> pollIds) {
+        if (!enabled || pollIds.isEmpty()) {
+            return;
+        }
+
+        List<UUID> invalidatedPollIds = List.copyOf(pollIds);
+        afterCommit(() -> {
+            markInvalidated(invalidatedPollIds);
+            pollViews.invalidateAll(invalidatedPollIds);
+        });
+    }
+
+    /**
+     * Invalidates the polls of the given voting items, like {@link #invalidate}.
+     * The polls are looked up after the commit, so a poll cached in the meantime is invalidated as well.
+     */
+    public void invalidateVotingItems(Collection<Integer> votingItemIds) {
+        if (!enabled || votingItemIds.isEmpty()) {
+            return;
+        }
+
+        List<Integer> invalidatedVotingItemIds = List.copyOf(votingItemIds);
+        afterCommit(() -> {
+            markInvalidated(invalidatedVotingItemIds);
+            pollViews.invalidateAll(votingItemPolls.getAllPresent(invalidatedVotingItemIds).values().stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .toList());
+        });
+    }
+
+    private static void afterCommit(Runnable invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        } else {
+            invalidation.run();
+        }
+    }
+
+    private void markInvalidated(Collection<?> keys) {
+        long invalidatedVersion = version.incrementAndGet();
+        for (Object key : keys) {
+            invalidatedVersions.accumulateAndGet(stripe(key), invalidatedVersion, Math::max);
+        }
+    }
+
+    private boolean isInvalidatedSince(PollResponse pollView, long loadedVersion) {
+        if (invalidatedVersions.get(stripe(pollView.pollId())) > loadedVersion) {
+            return true;
+        }
+        return pollView.votingItems().stream()
+                .anyMatch(votingItem -> invalidatedVersions.get(stripe(votingItem.votingItemId())) > loadedVersion);
+    }
+
+    private static int stripe(Object key) {
+        return Math.floorMod(key.hashCode(), NOF_VERSION_STRIPES);
+    }
+}
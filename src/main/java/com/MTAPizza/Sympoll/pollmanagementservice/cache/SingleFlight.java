@@ -0,0 +1,68 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Merges identical concurrent reads: while a read of a key is in flight, other reads of the same key wait for it
+ * and share its result (or its exception) instead of repeating it.
+ * Nothing is kept once the read completes, so the next read of the key runs again and results are never staler
+ * than the read they joined.
+ * Reads and reads that joined an in-flight read are counted in 'single.flight.reads' and 'single.flight.shared'.
+ */
+@Component
+public class SingleFlight {
+    private final boolean enabled;
+    private final Map<Object, CompletableFuture<Object>> inFlightReads = new ConcurrentHashMap<>();
+    private final Counter readsCounter;
+    private final Counter sharedCounter;
+
+    public SingleFlight(@Value("${poll.single-flight.enabled:true}") boolean enabled, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.readsCounter = meterRegistry.counter("single.flight.reads");
+        this.sharedCounter = meterRegistry.counter("single.flight.shared");
+    }
+
+    /**
+     * Runs the read, or joins the in-flight read of the same key.
+     * @param key Identifies the read, must implement equals and hashCode (e.g. a record of the read's name and parameters).
+     * @return The read's result.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T run(Object key, Supplier<T> read) {
+        if (!enabled) {
+            return read.get();
+        }
+
+        readsCounter.increment();
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> inFlightRead = inFlightReads.putIfAbsent(key, flight);
+        if (inFlightRead != null) {
+            sharedCounter.increment();
+            try {
+                return (T) inFlightRead.join();
+            } catch (CompletionException e) {
+                throw (e.getCause() instanceof RuntimeException cause) ? cause : e;
+            }
+        }
+
+        try {
+            T result = read.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightReads.remove(key, flight);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.cache;
+
+import com.MTAPizza.Sympoll.pollmanagementservice.client.UserClient;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.user.UserResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Local cache of users' data fetched from the user service, keyed by user ID.
+ * Users unknown to the user service are cached as well (as empty entries), with a shorter TTL.
+ * The last known data of each user is kept for longer, and served when the user service fails
+ * (or its circuit breaker is open) instead of no data at all.
+ * Hit, miss and eviction counters are exposed as the 'users' cache metrics.
+ */
+@Slf4j
+@Component
+public class UserCache {
+    private final UserClient userClient;
+    private final Cache<UUID, Optional<UserResponse>> users;
+    private final Cache<UUID, UserResponse> lastKnownUsers;
+    private final BatchCoalescer<UUID, Optional<UserResponse>> userFetches;
+
+    public UserCache(UserClient userClient,
+                     MeterRegistry meterRegistry,
+                     @Value("${cache.users.maximum-size:10000}") long maximumSize,
+                     @Value("${cache.users.ttl-seconds:300}") long ttlSeconds,
+                     @Value("${cache.users.negative-ttl-seconds:30}") long negativeTtlSeconds,
+                     @Value("${cache.users.stale-ttl-seconds:86400}") long staleTtlSeconds,
+                     @Value("${cache.users.batch-window-ms:2}") long batchWindowMs,
+                     @Value("${cache.users.max-batch-size:100}") int maxBatchSize) {
+        this.userClient = userClient;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new NegativeCachingExpiry<UUID, Optional<UserResponse>>(
+                        Optional::isPresent, Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(negativeTtlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+        this.lastKnownUsers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(staleTtlSeconds))
+                .build();
+        this.userFetches = new BatchCoalescer<>("users", this::fetchUsers, Duration.ofMillis(batchWindowMs), maxBatchSize, meterRegistry);
+    }
+
+    /**
+     * Gets the data of the given users. Only users missing from the cache are fetched, in a single batch call
+     * shared with the concurrent lookups of other requests.
+     * If the user service fails, the last known data of the missing users is returned instead.
+     * @param userIds Set of user IDs.
+     * @return A map of user IDs to users' data, without unknown users.
+     */
+    public Map<UUID, UserResponse> getUsers(Set<UUID> userIds) {
+        Map<UUID, Optional<UserResponse>> cachedUsers;
+        try {
+            cachedUsers = users.getAll(userIds, userFetches::load);
+        } catch (Exception e) {
+            log.error("Failed to fetch users' data, serving the last known data", e);
+            cachedUsers = new HashMap<>(users.getAllPresent(userIds));
+            for (UUID userId : userIds) {
+                if (!cachedUsers.containsKey(userId)) {
+                    cachedUsers.put(userId, Optional.ofNullable(lastKnownUsers.getIfPresent(userId)));
+                }
+            }
+        }
+
+        Map<UUID, UserResponse> usersData = new HashMap<>();
+        cachedUsers.forEach((userId, user) -> user.ifPresent(userResponse -> usersData.put(userId, userResponse)));
+        return usersData;
+    }
+
+    private Map<UUID, Optional<UserResponse>> fetchUsers(Set<UUID> userIds) {
+        log.info("Batch fetching {} users' data from user service", userIds.size());
+        ResponseEntity<List<UserResponse>> response = userClient.getUsersListByIds(new ArrayList<>(userIds));
+
+        Map<UUID, Optional<UserResponse>> fetchedUsers = new HashMap<>();
+        userIds.forEach(userId -> fetchedUsers.put(userId, Optional.empty()));
+        Objects.requireNonNull(response.getBody()).forEach(user -> {
+            fetchedUsers.put(user.userId(), Optional.of(user));
+            lastKnownUsers.put(user.userId(), user);
+        });
+        return fetchedUsers;
+    }
+}
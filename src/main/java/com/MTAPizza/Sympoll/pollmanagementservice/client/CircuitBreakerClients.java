@@ -0,0 +1,35 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.client;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Wraps a service client, so every call to the service goes through the service's circuit breaker.
+ * While the breaker is open, calls fail fast with a {@link io.github.resilience4j.circuitbreaker.CallNotPermittedException}.
+ */
+public final class CircuitBreakerClients {
+    private CircuitBreakerClients() {
+    }
+
+    public static <T> T withCircuitBreaker(Class<T> clientClass, T client, CircuitBreaker circuitBreaker) {
+        Object proxy = Proxy.newProxyInstance(clientClass.getClassLoader(), new Class<?>[]{clientClass},
+                (instance, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return invoke(client, method, args);
+                    }
+                    return circuitBreaker.executeCheckedSupplier(() -> invoke(client, method, args));
+                });
+        return clientClass.cast(proxy);
+    }
+
+    private static Object invoke(Object client, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(client, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
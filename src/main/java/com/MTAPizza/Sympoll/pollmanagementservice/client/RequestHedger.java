@@ -0,0 +1,203 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hedges calls to a service with a long latency tail: when a call has not answered within the hedge delay,
+ * a duplicate call is sent, and the first successful answer of the two is used.
+ * The hedge delay is the configured percentile of the latencies of recent calls, so only the slowest calls are hedged.
+ * No call is hedged until enough latencies were observed.
+ * Hedges are limited by a budget: every call earns a fraction of a hedge, and a hedge is only sent while the earned
+ * budget covers it, so hedging adds at most that fraction of extra load to the service.
+ * The calls run on the given executor, the losing call is not cancelled and finishes within its client's timeouts.
+ * Calls, hedges and hedges that answered first are counted in 'hedging.calls', 'hedging.hedges' and 'hedging.wins',
+ * and the current hedge delay is exposed in 'hedging.delay', all tagged with the hedged call's name.
+ */
+@Slf4j
+public class RequestHedger {
+    private static final int LATENCY_WINDOW_SIZE = 1000;
+    private static final int MIN_SAMPLES = 100;
+    private static final int SAMPLES_PER_DELAY_UPDATE = 32;
+    private static final double MAX_BUDGET = 10;
+
+    private final String name;
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final double budgetPerCall;
+    private final Executor executor;
+    private final Counter callsCounter;
+    private final Counter hedgesCounter;
+    private final Counter winsCounter;
+
+    private final long[] latenciesNanos = new long[LATENCY_WINDOW_SIZE];
+    private int nofSamples;
+    private int samplesSinceDelayUpdate;
+    private volatile long delayNanos = -1;
+    private double budget;
+
+    /**
+     * @param name Name of the hedged call, used as the metrics' tag.
+     * @param enabled Whether calls are hedged, when disabled calls are made directly on the calling thread.
+     * @param percentile Percentile (0-100) of the recent latencies after which a call is hedged.
+     * @param minDelay Minimal hedge delay, so fast calls are not hedged because of a few microseconds of jitter.
+     * @param budgetPercent Maximal percent of calls that are hedged.
+     */
+    public RequestHedger(String name, boolean enabled, double percentile, Duration minDelay, double budgetPercent,
+                         Executor executor, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.budgetPerCall = budgetPercent / 100;
+        this.executor = executor;
+        this.callsCounter = meterRegistry.counter("hedging.calls", "name", name);
+        this.hedgesCounter = meterRegistry.counter("hedging.hedges", "name", name);
+        this.winsCounter = meterRegistry.counter("hedging.wins", "name", name);
+        Gauge.builder("hedging.delay", this, hedger -> Math.max(hedger.delayNanos, 0) / 1e6)
+                .tag("name", name)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Makes the call, and hedges it if it is slow.
+     * @return The answer of the first call that succeeded.
+     * @throws RuntimeException The exception of the call, if every sent call failed.
+     */
+    public <T> T call(Supplier<T> serviceCall) {
+        if (!enabled) {
+            return serviceCall.get();
+        }
+
+        callsCounter.increment();
+        earnBudget();
+        CompletableFuture<T> primaryCall;
+        try {
+            primaryCall = timedCall(serviceCall);
+        } catch (RejectedExecutionException e) {
+            log.debug("Hedging executor of {} is full, calling without hedging", name);
+            return serviceCall.get();
+        }
+
+        long currentDelayNanos = delayNanos;
+        if (currentDelayNanos < 0) {
+            return join(primaryCall);
+        }
+
+        try {
+            return primaryCall.get(currentDelayNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return hedge(serviceCall, primaryCall);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + name, e);
+        }
+    }
+
+    private <T> T hedge(Supplier<T> serviceCall, CompletableFuture<T> primaryCall) {
+        if (!spendBudget()) {
+            return join(primaryCall);
+        }
+
+        CompletableFuture<T> hedgeCall;
+        try {
+            hedgeCall = CompletableFuture.supplyAsync(serviceCall, executor);
+        } catch (RejectedExecutionException e) {
+            return join(primaryCall);
+        }
+        hedgesCounter.increment();
+
+        // Complete with the first successful answer, or with the primary call's failure if both calls failed
+        CompletableFuture<T> firstAnswer = new CompletableFuture<>();
+        AtomicInteger failedCalls = new AtomicInteger();
+        primaryCall.whenComplete((answer, failure) -> {
+            if (failure == null) {
+                firstAnswer.complete(answer);
+            } else if (failedCalls.incrementAndGet() == 2) {
+                firstAnswer.completeExceptionally(failure);
+            }
+        });
+        hedgeCall.whenComplete((answer, failure) -> {
+            if (failure == null) {
+                if (firstAnswer.complete(answer)) {
+                    winsCounter.increment();
+                }
+            } else if (failedCalls.incrementAndGet() == 2) {
+                primaryCall.whenComplete((primaryAnswer, primaryFailure) -> firstAnswer.completeExceptionally(primaryFailure));
+            }
+        });
+        return join(firstAnswer);
+    }
+
+    /**
+     * Runs the call on the executor, and records its latency once it completes (even if it was hedged),
+     * so the observed latencies are not biased toward the faster calls.
+     */
+    private <T> CompletableFuture<T> timedCall(Supplier<T> serviceCall) {
+        long startTime = System.nanoTime();
+        CompletableFuture<T> call = CompletableFuture.supplyAsync(serviceCall, executor);
+        call.whenComplete((answer, failure) -> {
+            if (failure == null) {
+                recordLatency(System.nanoTime() - startTime);
+            }
+        });
+        return call;
+    }
+
+    private synchronized void recordLatency(long latencyNanos) {
+        latenciesNanos[nofSamples % LATENCY_WINDOW_SIZE] = latencyNanos;
+        nofSamples++;
+        samplesSinceDelayUpdate++;
+        if (nofSamples < MIN_SAMPLES || samplesSinceDelayUpdate < SAMPLES_PER_DELAY_UPDATE) {
+            return;
+        }
+
+        samplesSinceDelayUpdate = 0;
+        long[] window = Arrays.copyOf(latenciesNanos, Math.min(nofSamples, LATENCY_WINDOW_SIZE));
+        Arrays.sort(window);
+        int index = (int) Math.ceil(percentile / 100 * window.length) - 1;
+        delayNanos = Math.max(window[Math.max(index, 0)], minDelayNanos);
+    }
+
+    private synchronized void earnBudget() {
+        budget = Math.min(budget + budgetPerCall, MAX_BUDGET);
+    }
+
+    private synchronized boolean spendBudget() {
+        if (budget < 1) {
+            return false;
+        }
+        budget--;
+        return true;
+    }
+
+    private static <T> T join(CompletableFuture<T> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable failure) {
+        return (failure instanceof RuntimeException runtimeException) ? runtimeException : new CompletionException(failure);
+    }
+}
@@ -0,0 +1,134 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded executors for calls to the other services, one per downstream service, so a slow service
+ * only exhausts its own threads and queue.
+ * When an executor's queue is full, the call is either run by the calling thread ('caller-runs'),
+ * or rejected ('abort') and answered with the caller's fallback.
+ * Active threads, pool size and queue depth are exposed as the 'executor' metrics, tagged with the executor's name.
+ * The vote service's hedging executor runs the hedged vote choices calls (see {@link ResilienceConfig}), it rejects calls
+ * when full, and the call is then made without hedging.
+ * In virtual thread mode ('spring.threads.virtual.enabled', requires JDK 21) every call runs on its own virtual thread
+ * instead, and the executor only limits the number of concurrent calls to the service.
+ * The hedging executor keeps rejecting in that mode: at its concurrency limit a call is rejected instead of waiting.
+ */
+@Configuration
+public class ExecutorConfig {
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean
+    public Executor userServiceExecutor(MeterRegistry meterRegistry,
+                                        @Value("${user.service.executor.threads:8}") int threads,
+                                        @Value("${user.service.executor.queue-capacity:100}") int queueCapacity,
+                                        @Value("${user.service.executor.rejection-policy:caller-runs}") String rejectionPolicy,
+                                        @Value("${user.service.executor.virtual-concurrency-limit:100}") int virtualConcurrencyLimit) {
+        return virtualThreads
+                ? virtualThreadExecutor("user-service", virtualConcurrencyLimit)
+                : boundedExecutor("user-service", threads, queueCapacity, rejectionPolicy, meterRegistry);
+    }
+
+    @Bean
+    public Executor groupServiceExecutor(MeterRegistry meterRegistry,
+                                         @Value("${group.service.executor.threads:8}") int threads,
+                                         @Value("${group.service.executor.queue-capacity:100}") int queueCapacity,
+                                         @Value("${group.service.executor.rejection-policy:caller-runs}") String rejectionPolicy,
+                                         @Value("${group.service.executor.virtual-concurrency-limit:100}") int virtualConcurrencyLimit) {
+        return virtualThreads
+                ? virtualThreadExecutor("group-service", virtualConcurrencyLimit)
+                : boundedExecutor("group-service", threads, queueCapacity, rejectionPolicy, meterRegistry);
+    }
+
+    @Bean
+    public Executor voteServiceExecutor(MeterRegistry meterRegistry,
+                                        @Value("${vote.service.executor.threads:8}") int threads,
+                                        @Value("${vote.service.executor.queue-capacity:100}") int queueCapacity,
+                                        @Value("${vote.service.executor.rejection-policy:caller-runs}") String rejectionPolicy,
+                                        @Value("${vote.service.executor.virtual-concurrency-limit:100}") int virtualConcurrencyLimit) {
+        return virtualThreads
+                ? virtualThreadExecutor("vote-service", virtualConcurrencyLimit)
+                : boundedExecutor("vote-service", threads, queueCapacity, rejectionPolicy, meterRegistry);
+    }
+
+    @Bean
+    public Executor voteServiceHedgingExecutor(MeterRegistry meterRegistry,
+                                               @Value("${vote.service.hedging.threads:16}") int threads,
+                                               @Value("${vote.service.hedging.queue-capacity:16}") int queueCapacity,
+                                               @Value("${vote.service.hedging.virtual-concurrency-limit:16}") int virtualConcurrencyLimit) {
+        return virtualThreads
+                ? rejectingVirtualThreadExecutor("vote-service-hedging", virtualConcurrencyLimit)
+                : boundedExecutor("vote-service-hedging", threads, queueCapacity, "abort", meterRegistry);
+    }
+
+    private static Executor virtualThreadExecutor(String name, int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(name + "-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        return executor;
+    }
+
+    /**
+     * Like {@link #virtualThreadExecutor(String, int)}, but a call over the concurrency limit is rejected
+     * with a {@link RejectedExecutionException}, instead of blocking the caller until a call completes.
+     */
+    private static Executor rejectingVirtualThreadExecutor(String name, int concurrencyLimit) {
+        Executor executor = virtualThreadExecutor(name, SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY);
+        Semaphore permits = new Semaphore(concurrencyLimit);
+        return task -> {
+            if (!permits.tryAcquire()) {
+                throw new RejectedExecutionException("Executor " + name + " reached its concurrency limit of " + concurrencyLimit);
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        };
+    }
+
+    private static Executor boundedExecutor(String name, int threads, int queueCapacity, String rejectionPolicy,
+                                            MeterRegistry meterRegistry) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, name + "-" + threadNumber.incrementAndGet()),
+                rejectedExecutionHandler(rejectionPolicy));
+        executor.allowCoreThreadTimeOut(true);
+
+        new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+
+    private static RejectedExecutionHandler rejectedExecutionHandler(String rejectionPolicy) {
+        return switch (rejectionPolicy) {
+            case "caller-runs" -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case "abort" -> new ThreadPoolExecutor.AbortPolicy();
+            default -> throw new IllegalArgumentException("Unknown executor rejection policy: " + rejectionPolicy);
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.config;
+
+import com.MTAPizza.Sympoll.pollmanagementservice.client.RequestHedger;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Circuit breakers of the clients of the other services, one per service.
+ * A breaker opens when too many of the recent calls to its service failed or were slow, and then fails calls fast
+ * until its wait duration passes. Client errors (4xx) are answers of a healthy service, so they are not failures.
+ * Breaker states and calls are exposed as the 'resilience4j.circuitbreaker' metrics, and state transitions are
+ * counted in 'resilience4j.circuitbreaker.transitions'.
+ * Calls for the user's vote choices, which the polls feed waits for, can be hedged (see {@link RequestHedger}).
+ */
+@Slf4j
+@Configuration
+public class ResilienceConfig {
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(MeterRegistry meterRegistry,
+                                                         @Value("${resilience.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                                                         @Value("${resilience.circuit-breaker.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+                                                         @Value("${resilience.circuit-breaker.slow-call-duration-threshold-ms:2000}") long slowCallDurationThresholdMs,
+                                                         @Value("${resilience.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+                                                         @Value("${resilience.circuit-breaker.minimum-number-of-calls:20}") int minimumNumberOfCalls,
+                                                         @Value("${resilience.circuit-breaker.wait-duration-in-open-state-ms:10000}") long waitDurationInOpenStateMs,
+                                                         @Value("${resilience.circuit-breaker.permitted-calls-in-half-open-state:5}") int permittedCallsInHalfOpenState) {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallDurationThresholdMs))
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(Duration.ofMillis(waitDurationInOpenStateMs))
+                .permittedNumberOfCallsInHalfOpenState(permittedCallsInHalfOpenState)
+                .ignoreExceptions(HttpClientErrorException.class)
+                .build();
+
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        circuitBreakerRegistry.getEventPublisher().onEntryAdded(entryAddedEvent -> {
+            String name = entryAddedEvent.getAddedEntry().getName();
+            entryAddedEvent.getAddedEntry().getEventPublisher().onStateTransition(event -> {
+                log.warn("Circuit breaker of {} changed state: {}", name, event.getStateTransition());
+                meterRegistry.counter("resilience4j.circuitbreaker.transitions",
+                        "name", name,
+                        "from", event.getStateTransition().getFromState().name(),
+                        "to", event.getStateTransition().getToState().name()).increment();
+            });
+        });
+        return circuitBreakerRegistry;
+    }
+
+    @Bean
+    public RequestHedger voteChoicesHedger(MeterRegistry meterRegistry,
+                                           @Qualifier("voteServiceHedgingExecutor") Executor voteServiceHedgingExecutor,
+                                           @Value("${vote.service.hedging.enabled:false}") boolean enabled,
+                                           @Value("${vote.service.hedging.percentile:95}") double percentile,
+                                           @Value("${vote.service.hedging.min-delay-ms:5}") long minDelayMs,
+                                           @Value("${vote.service.hedging.budget-percent:10}") double budgetPercent) {
+        return new RequestHedger("vote-choices", enabled, percentile, Duration.ofMillis(minDelayMs), budgetPercent,
+                voteServiceHedgingExecutor, meterRegistry);
+    }
+}
@@ -1,15 +1,52 @@
 package com.MTAPizza.Sympoll.pollmanagementservice.config;
 
+import com.MTAPizza.Sympoll.pollmanagementservice.client.CircuitBreakerClients;
 import com.MTAPizza.Sympoll.pollmanagementservice.client.GroupClient;
 import com.MTAPizza.Sympoll.pollmanagementservice.client.UserClient;
 import com.MTAPizza.Sympoll.pollmanagementservice.client.VoteClient;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.support.RestClientAdapter;
 import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the clients of the other services, each with its own HTTP transport:
+ * <ul>
+ *     <li>'pooled' (default): Apache HttpClient with a bounded connection pool, which evicts idle connections.
+ *     Pool utilisation is exposed as the 'httpcomponents.httpclient.pool' metrics, tagged with the client's name.</li>
+ *     <li>'http2': the JDK HTTP client, which uses HTTP/2 when the service supports it and multiplexes requests
+ *     over a single connection.</li>
+ * </ul>
+ * Both transports apply the client's connect and read timeouts, so a slow service can not hold threads indefinitely.
+ * Every client goes through its service's circuit breaker (see {@link ResilienceConfig}).
+ */
+@Slf4j
 @Configuration
 public class RestClientConfig {
     @Value("${user.service.url}")
@@ -21,36 +58,122 @@ public class RestClientConfig {
     @Value("${vote.service.url}")
     private String voteServiceUrl;
 
+    private final List<CloseableHttpClient> pooledHttpClients = new ArrayList<>();
+
     @Bean
-    public UserClient userClient() {
-        RestClient restClient = RestClient.builder()
-                .baseUrl(userServiceUrl)
-                .build();
+    public UserClient userClient(MeterRegistry meterRegistry,
+                                 CircuitBreakerRegistry circuitBreakerRegistry,
+                                 @Value("${user.service.http.transport:pooled}") String transport,
+                                 @Value("${user.service.http.max-connections:50}") int maxConnections,
+                                 @Value("${user.service.http.max-connections-per-route:50}") int maxConnectionsPerRoute,
+                                 @Value("${user.service.http.connect-timeout-ms:1000}") int connectTimeoutMs,
+                                 @Value("${user.service.http.read-timeout-ms:3000}") int readTimeoutMs,
+                                 @Value("${user.service.http.idle-timeout-seconds:30}") int idleTimeoutSeconds) {
+        ClientHttpRequestFactory requestFactory = requestFactory("user-service", meterRegistry, transport, maxConnections,
+                maxConnectionsPerRoute, connectTimeoutMs, readTimeoutMs, idleTimeoutSeconds);
+        return createClient(UserClient.class, userServiceUrl, requestFactory, circuitBreakerRegistry.circuitBreaker("user-service"));
+    }
 
-        var restClientAdapter = RestClientAdapter.create(restClient);
-        var httpServiceProxyFactory = HttpServiceProxyFactory.builderFor(restClientAdapter).build();
-        return httpServiceProxyFactory.createClient(UserClient.class);
+    @Bean
+    public GroupClient groupClient(MeterRegistry meterRegistry,
+                                   CircuitBreakerRegistry circuitBreakerRegistry,
+                                   @Value("${group.service.http.transport:pooled}") String transport,
+                                   @Value("${group.service.http.max-connections:50}") int maxConnections,
+                                   @Value("${group.service.http.max-connections-per-route:50}") int maxConnectionsPerRoute,
+                                   @Value("${group.service.http.connect-timeout-ms:1000}") int connectTimeoutMs,
+                                   @Value("${group.service.http.read-timeout-ms:3000}") int readTimeoutMs,
+                                   @Value("${group.service.http.idle-timeout-seconds:30}") int idleTimeoutSeconds) {
+        ClientHttpRequestFactory requestFactory = requestFactory("group-service", meterRegistry, transport, maxConnections,
+                maxConnectionsPerRoute, connectTimeoutMs, readTimeoutMs, idleTimeoutSeconds);
+        return createClient(GroupClient.class, groupServiceUrl, requestFactory, circuitBreakerRegistry.circuitBreaker("group-service"));
     }
 
     @Bean
-    public GroupClient groupClient() {
+    public VoteClient voteClient(MeterRegistry meterRegistry,
+                                 CircuitBreakerRegistry circuitBreakerRegistry,
+                                 @Value("${vote.service.http.transport:pooled}") String transport,
+                                 @Value("${vote.service.http.max-connections:50}") int maxConnections,
+                                 @Value("${vote.service.http.max-connections-per-route:50}") int maxConnectionsPerRoute,
+                                 @Value("${vote.service.http.connect-timeout-ms:1000}") int connectTimeoutMs,
+                                 @Value("${vote.service.http.read-timeout-ms:3000}") int readTimeoutMs,
+                                 @Value("${vote.service.http.idle-timeout-seconds:30}") int idleTimeoutSeconds) {
+        ClientHttpRequestFactory requestFactory = requestFactory("vote-service", meterRegistry, transport, maxConnections,
+                maxConnectionsPerRoute, connectTimeoutMs, readTimeoutMs, idleTimeoutSeconds);
+        return createClient(VoteClient.class, voteServiceUrl, requestFactory, circuitBreakerRegistry.circuitBreaker("vote-service"));
+    }
+
+    @PreDestroy
+    void closeHttpClients() {
+        for (CloseableHttpClient httpClient : pooledHttpClients) {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                log.error("Failed to close HTTP client", e);
+            }
+        }
+    }
+
+    private static <T> T createClient(Class<T> clientClass, String baseUrl, ClientHttpRequestFactory requestFactory,
+                                      CircuitBreaker circuitBreaker) {
         RestClient restClient = RestClient.builder()
-                .baseUrl(groupServiceUrl)
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
                 .build();
 
         var restClientAdapter = RestClientAdapter.create(restClient);
         var httpServiceProxyFactory = HttpServiceProxyFactory.builderFor(restClientAdapter).build();
-        return httpServiceProxyFactory.createClient(GroupClient.class);
+        return CircuitBreakerClients.withCircuitBreaker(clientClass, httpServiceProxyFactory.createClient(clientClass), circuitBreaker);
     }
 
-    @Bean
-    public VoteClient voteClient() {
-        RestClient restClient = RestClient.builder()
-                .baseUrl(voteServiceUrl)
+    private ClientHttpRequestFactory requestFactory(String name, MeterRegistry meterRegistry, String transport,
+                                                    int maxConnections, int maxConnectionsPerRoute,
+                                                    int connectTimeoutMs, int readTimeoutMs, int idleTimeoutSeconds) {
+        return switch (transport) {
+            case "pooled" -> pooledRequestFactory(name, meterRegistry, maxConnections, maxConnectionsPerRoute,
+                    connectTimeoutMs, readTimeoutMs, idleTimeoutSeconds);
+            case "http2" -> http2RequestFactory(connectTimeoutMs, readTimeoutMs);
+            default -> throw new IllegalArgumentException("Unknown HTTP transport of " + name + ": " + transport);
+        };
+    }
+
+    private ClientHttpRequestFactory pooledRequestFactory(String name, MeterRegistry meterRegistry,
+                                                          int maxConnections, int maxConnectionsPerRoute,
+                                                          int connectTimeoutMs, int readTimeoutMs, int idleTimeoutSeconds) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        // Pooled connections idle for a while may have been closed by the service, so check them first
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
                 .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name).bindTo(meterRegistry);
 
-        var restClientAdapter = RestClientAdapter.create(restClient);
-        var httpServiceProxyFactory = HttpServiceProxyFactory.builderFor(restClientAdapter).build();
-        return httpServiceProxyFactory.createClient(VoteClient.class);
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        // Waiting for a free pooled connection is bounded by the connect timeout as well
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeoutSeconds, TimeUnit.SECONDS))
+                .build();
+        pooledHttpClients.add(httpClient);
+
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    private static ClientHttpRequestFactory http2RequestFactory(int connectTimeoutMs, int readTimeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return requestFactory;
     }
 }
@@ -1,5 +1,6 @@
 package com.MTAPizza.Sympoll.pollmanagementservice.config;
 
+import com.MTAPizza.Sympoll.pollmanagementservice.controller.ServiceController;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -13,6 +14,7 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowCredentials(true)
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders(ServiceController.NEXT_CURSOR_HEADER)
                 .maxAge(3600); // Cache preflight response for 1 hour
     }
 }
@@ -3,14 +3,17 @@ package com.MTAPizza.Sympoll.pollmanagementservice.controller;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.group.DeleteGroupPollsRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.group.DeleteGroupPollsResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.health.HealthResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.create.PollBulkCreateResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.create.PollCreateRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.PollResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.delete.PollDeleteRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.delete.PollDeleteResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.page.PollPage;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.update.PollUpdateRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.update.PollUpdateResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.VoteRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.VoteResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.batch.VoteBatchResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.count.VoteCountRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.count.VoteCountResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.service.poll.PollService;
@@ -18,6 +21,7 @@ import com.MTAPizza.Sympoll.pollmanagementservice.service.voting.item.VotingItem
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -28,6 +32,9 @@ import java.util.UUID;
 @RequiredArgsConstructor
 @Slf4j
 public class ServiceController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_LIMIT = 20;
+
     private final PollService pollService;
     private final VotingItemService votingItemService;
 
@@ -44,15 +51,34 @@ public class ServiceController {
         return pollService.createPoll(pollCreateRequest);
     }
 
+    /**
+     * Create a batch of new polls to save in the database.
+     * @param pollCreateRequests Information of the polls to be created.
+     * @return The result of each poll in the batch, the created poll or the reason it was not created.
+     */
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.OK)
+    public PollBulkCreateResponse createPolls(@RequestBody List<PollCreateRequest> pollCreateRequests){
+        log.info("Received request to create a batch of {} polls", pollCreateRequests.size());
+        return pollService.createPolls(pollCreateRequests);
+    }
+
     /**
      * Fetch all the polls currently saved in the database.
+     * If a limit or a cursor is given, a single page is returned, and the next page's cursor is sent in the 'X-Next-Cursor' header.
+     * @param limit Optional maximal number of polls to return.
+     * @param after Optional cursor received from the previous page.
      * @return List of polls.
      */
     @GetMapping("/all")
     @ResponseStatus(HttpStatus.OK)
-    public List<PollResponse> getAllPolls(){
+    public ResponseEntity<List<PollResponse>> getAllPolls(@RequestParam(required = false) Integer limit,
+                                                          @RequestParam(required = false) String after){
         log.info("Received request to retrieve all polls");
-        return pollService.getAllPolls();
+        if (isPageRequest(limit, after)) {
+            return toPageResponse(pollService.getAllPolls(pageLimit(limit), after));
+        }
+        return ResponseEntity.ok(pollService.getAllPolls());
     }
 
     /**
@@ -71,39 +97,62 @@ public class ServiceController {
      * Fetch all polls of a specific group.
      * @param groupId Group ID to fetch all its polls.
      * @param userId Optional userId to fetch polls with user's choices.
+     * @param limit Optional maximal number of polls to return.
+     * @param after Optional cursor received from the previous page.
      * @return List of all polls of the received group.
      */
     @GetMapping("/by-group-id")
     @ResponseStatus(HttpStatus.OK)
-    public List<PollResponse> getPollsByGroupId(@RequestParam String groupId, @RequestParam(required = false) UUID userId){
+    public ResponseEntity<List<PollResponse>> getPollsByGroupId(@RequestParam String groupId,
+                                                                @RequestParam(required = false) UUID userId,
+                                                                @RequestParam(required = false) Integer limit,
+                                                                @RequestParam(required = false) String after){
         log.info("Received request to get all polls of group with ID: {}", groupId);
-        return pollService.getPollsByGroupId(groupId, userId);
+        if (isPageRequest(limit, after)) {
+            return toPageResponse(pollService.getPollsByGroupId(groupId, userId, pageLimit(limit), after));
+        }
+        return ResponseEntity.ok(pollService.getPollsByGroupId(groupId, userId));
     }
 
 
     /**
      * Returns the given user's polls from all groups he is a member of.
      * @param userId User ID to fetch his polls
+     * @param limit Optional maximal number of polls to return.
+     * @param after Optional cursor received from the previous page.
      * @return List of polls in descending order by creation date
      */
     @GetMapping("/all-user-polls")
     @ResponseStatus(HttpStatus.OK)
-    public List<PollResponse> getAllUserPolls(@RequestParam UUID userId){
+    public ResponseEntity<List<PollResponse>> getAllUserPolls(@RequestParam UUID userId,
+                                                              @RequestParam(required = false) Integer limit,
+                                                              @RequestParam(required = false) String after){
         log.info("Received request to get all polls of user with ID: {}", userId);
-        return pollService.getAllUserPolls(userId);
+        if (isPageRequest(limit, after)) {
+            return toPageResponse(pollService.getAllUserPolls(userId, pageLimit(limit), after));
+        }
+        return ResponseEntity.ok(pollService.getAllUserPolls(userId));
     }
 
     /**
      * Fetch all polls of multiple groups.
      * @param groupIds List of group IDs to fetch their polls.
      * @param userId Optional userId to fetch polls with user's choices.
+     * @param limit Optional maximal number of polls to return.
+     * @param after Optional cursor received from the previous page.
      * @return List of polls of the received groups, sorted by date posted, newest first.
      */
     @PostMapping("/by-multiple-group-ids")
     @ResponseStatus(HttpStatus.OK)
-    public List<PollResponse> getPollsByMultipleGroupIds(@RequestBody List<String> groupIds, @RequestParam(required = false) UUID userId){
+    public ResponseEntity<List<PollResponse>> getPollsByMultipleGroupIds(@RequestBody List<String> groupIds,
+                                                                         @RequestParam(required = false) UUID userId,
+                                                                         @RequestParam(required = false) Integer limit,
+                                                                         @RequestParam(required = false) String after){
         log.info("Received request to get all polls of groups with IDs: {}", groupIds);
-        return pollService.getPollsByMultipleGroupIds(groupIds, userId);
+        if (isPageRequest(limit, after)) {
+            return toPageResponse(pollService.getPollsByMultipleGroupIds(groupIds, userId, pageLimit(limit), after));
+        }
+        return ResponseEntity.ok(pollService.getPollsByMultipleGroupIds(groupIds, userId));
     }
 
     /**
@@ -154,6 +203,18 @@ public class ServiceController {
         return votingItemService.updateVotingItem(voteRequest);
     }
 
+    /**
+     * Update a batch of votes in the database, in a single transaction.
+     * @param voteRequests The votes to apply.
+     * @return The result of each voting item in the batch, including errors of votes that were not applied.
+     */
+    @PutMapping("/vote/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public VoteBatchResponse updateVotingItems(@RequestBody List<VoteRequest> voteRequests) {
+        log.info("Received request to update a batch of {} votes", voteRequests.size());
+        return votingItemService.updateVotingItems(voteRequests);
+    }
+
     /**
      * Retrieve votes count of a specific vote.
      * @param voteCountRequest Voting item ID of requested vote.
@@ -177,4 +238,26 @@ public class ServiceController {
         log.info("Received request to delete all group's polls");
         return pollService.deleteGroupPolls(deleteGroupPollsRequest);
     }
+
+    /**
+     * Paging is opt-in: a feed is paged only if the client sent a limit or a cursor.
+     */
+    private static boolean isPageRequest(Integer limit, String after) {
+        return limit != null || after != null;
+    }
+
+    private static int pageLimit(Integer limit) {
+        return (limit != null) ? limit : DEFAULT_PAGE_LIMIT;
+    }
+
+    /**
+     * Returns the page's polls as the body, and the next page's cursor (if there is one) in the 'X-Next-Cursor' header.
+     */
+    private static ResponseEntity<List<PollResponse>> toPageResponse(PollPage pollPage) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (pollPage.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, pollPage.nextCursor());
+        }
+        return response.body(pollPage.polls());
+    }
 }
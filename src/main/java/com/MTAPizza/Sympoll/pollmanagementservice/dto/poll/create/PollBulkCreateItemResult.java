@@ -0,0 +1,16 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.create;
+
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.PollResponse;
+
+/**
+ * Result of a single poll in a bulk create request.
+ * @param index Index of the poll in the request.
+ * @param poll The created poll, null if it was not created.
+ * @param error Reason the poll was not created, null if it was created.
+ */
+public record PollBulkCreateItemResult(
+        int index,
+        PollResponse poll,
+        String error
+) {
+}
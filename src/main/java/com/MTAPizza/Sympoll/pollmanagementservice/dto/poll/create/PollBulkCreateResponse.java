@@ -0,0 +1,6 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.create;
+
+import java.util.List;
+
+public record PollBulkCreateResponse(List<PollBulkCreateItemResult> results) {
+}
@@ -0,0 +1,47 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.page;
+
+import com.MTAPizza.Sympoll.pollmanagementservice.model.poll.Poll;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last poll of a page in the poll feeds, which are ordered by (timeCreated, pollId) descending.
+ * Sent to clients as an opaque token, and used to fetch the next page with a keyset query.
+ */
+public record PollCursor(
+        LocalDateTime timeCreated,
+        UUID pollId
+) {
+    private static final String SEPARATOR = "_";
+
+    public static PollCursor of(Poll poll) {
+        return new PollCursor(poll.getTimeCreated(), poll.getPollId());
+    }
+
+    /**
+     * Encodes the cursor into an opaque, URL safe token.
+     */
+    public String encode() {
+        String raw = timeCreated + SEPARATOR + pollId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token created by {@link #encode()}.
+     * @param token The token received from the client.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException If the token is malformed.
+     */
+    public static PollCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 2);
+            return new PollCursor(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.page;
+
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.PollResponse;
+
+import java.util.List;
+
+/**
+ * A single page of a poll feed.
+ * @param polls The polls of the page, newest first.
+ * @param nextCursor Token to fetch the next page with, or null if this is the last page.
+ */
+public record PollPage(
+        List<PollResponse> polls,
+        String nextCursor
+) {
+}
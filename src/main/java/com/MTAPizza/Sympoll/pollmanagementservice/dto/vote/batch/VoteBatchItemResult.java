@@ -0,0 +1,18 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.batch;
+
+/**
+ * Result of the votes of a single voting item in a batch.
+ * @param votingItemId ID of the voting item.
+ * @param delta Net number of votes added to the voting item by the batch.
+ * @param votingItemDescription Description of the voting item, null if it does not exist.
+ * @param voteCount Vote count after the batch was applied, null if the votes were not applied.
+ * @param error Reason the votes were not applied, null if they were applied.
+ */
+public record VoteBatchItemResult(
+        int votingItemId,
+        int delta,
+        String votingItemDescription,
+        Integer voteCount,
+        String error
+) {
+}
@@ -0,0 +1,6 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.batch;
+
+import java.util.List;
+
+public record VoteBatchResponse(List<VoteBatchItemResult> results) {
+}
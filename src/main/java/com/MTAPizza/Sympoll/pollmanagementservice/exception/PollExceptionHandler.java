@@ -4,6 +4,7 @@ import com.MTAPizza.Sympoll.pollmanagementservice.dto.error.*;
 import com.MTAPizza.Sympoll.pollmanagementservice.exception.access.denied.AccessDeniedException;
 import com.MTAPizza.Sympoll.pollmanagementservice.exception.not.found.ResourceNotFoundException;
 import com.MTAPizza.Sympoll.pollmanagementservice.exception.request.RequestFailedException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -66,6 +67,14 @@ public class PollExceptionHandler {
         return new ResponseEntity<>(new RequestFailedErrorResponse(ex.getMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    /**
+     * Handles calls to other microservices that failed fast, because the service's circuit breaker is open.
+     */
+    @ExceptionHandler(CallNotPermittedException.class)
+    public ResponseEntity<RequestFailedErrorResponse> handleCallNotPermittedException(CallNotPermittedException ex, WebRequest request) {
+        log.info("Encountered a request to an unavailable microservice: {}", ex.getMessage());
+        return new ResponseEntity<>(new RequestFailedErrorResponse(ex.getMessage()), HttpStatus.SERVICE_UNAVAILABLE);
+    }
 
     /**
      * Handles unhandled exceptions.
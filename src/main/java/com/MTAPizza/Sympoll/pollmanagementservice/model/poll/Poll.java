@@ -11,6 +11,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -52,8 +53,12 @@ public class Poll implements Comparable<Poll>{
     @Column(name = "deadline")
     private LocalDateTime deadline;
 
+    /* Loaded in batches: accessing the voting items of one poll loads those of all the polls
+       in the persistence context with a single query, instead of a query per poll.
+       The join column is neither nullable nor updatable, so a new voting item's poll_id is part of its insert, instead of a later update. */
     @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
-    @JoinColumn(name = "poll_id")
+    @JoinColumn(name = "poll_id", nullable = false, updatable = false)
+    @BatchSize(size = 500)
     private List<VotingItem> votingItems;
 
     /**
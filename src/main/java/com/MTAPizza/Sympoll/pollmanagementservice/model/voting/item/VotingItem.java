@@ -14,25 +14,43 @@ import java.util.UUID;
 @NoArgsConstructor
 @Data
 public class VotingItem {
+    /*
+     * IDs come from the table's sequence in blocks of 50 (its increment), so inserts of new voting items can be batched.
+     * The service does not start if the sequence's increment differs (see docker/migrations/003_voting_item_id_sequence_increment.sql).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "voting_item_id_generator")
+    @SequenceGenerator(name = "voting_item_id_generator", sequenceName = "voting_item_options_voting_item_id_seq", allocationSize = 50)
     private int votingItemId;
 
-    @Column(name = "poll_id")
+    /* Written by the poll's 'votingItems' association, as part of the voting item's insert */
+    @Column(name = "poll_id", insertable = false, updatable = false)
     private UUID pollId;
 
     @Column(name = "description")
     private String description;
 
+    /* Votes counted in the voting item's own row */
     @Column(name = "vote_count")
     private int voteCount;
 
+    /* Votes counted in the voting item's counter slots, only loaded in counter slots mode (see 'VoteCounterSlots') */
+    @Transient
+    private int slotVoteCount;
+
+    /**
+     * @return The voting item's total vote count: its own row plus its loaded counter slots.
+     */
+    public int getTotalVoteCount() {
+        return voteCount + slotVoteCount;
+    }
+
     public VotingItemResponse toVotingItemResponse() {
         return new VotingItemResponse(
                 votingItemId,
                 description,
                 false,
-                voteCount
+                getTotalVoteCount()
         );
     }
 
@@ -47,7 +65,7 @@ public class VotingItem {
                 votingItemId,
                 description,
                 isChecked, // Set the checked field based on the passed argument
-                voteCount
+                getTotalVoteCount()
         );
     }
 }
\ No newline at end of file
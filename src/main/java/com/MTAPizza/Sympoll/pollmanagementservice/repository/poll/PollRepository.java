@@ -1,16 +1,77 @@
 package com.MTAPizza.Sympoll.pollmanagementservice.repository.poll;
 
 import com.MTAPizza.Sympoll.pollmanagementservice.model.poll.Poll;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 
 @Repository
 public interface PollRepository extends JpaRepository<Poll, UUID> {
-    List<Poll> findByGroupIdIn(List<String> groupIds);
-    List<Poll> findByGroupId(String groupId);
-    void deleteByPollIdIn(List<UUID> pollIds);
-}
\ No newline at end of file
+    List<Poll> findAllByOrderByTimeCreatedDescPollIdDesc();
+    List<Poll> findByGroupIdInOrderByTimeCreatedDescPollIdDesc(List<String> groupIds);
+    List<Poll> findByGroupIdOrderByTimeCreatedDescPollIdDesc(String groupId);
+
+    @Query("SELECT p.creatorId FROM Poll p WHERE p.pollId = :pollId")
+    Optional<UUID> findCreatorIdByPollId(@Param("pollId") UUID pollId);
+
+    /**
+     * The IDs of a page of a group's polls and of their voting items, in a single query and without loading the entities.
+     * Pages are ordered by poll ID, and each following page starts right after the last poll of the previous one.
+     * @param groupId ID of the group.
+     * @param afterPollId ID of the last poll of the previous page.
+     * @param limit Maximal number of polls in the page.
+     * @return A row per voting item, and a row with a null voting item ID per poll without voting items, ordered by poll ID.
+     */
+    @Query(value = "SELECT p.poll_id AS \"pollId\", v.voting_item_id AS \"votingItemId\" " +
+            "FROM (SELECT poll_id FROM polls WHERE group_id = :groupId AND poll_id > :afterPollId ORDER BY poll_id LIMIT :limit) p " +
+            "LEFT JOIN voting_item_options v ON v.poll_id = p.poll_id " +
+            "ORDER BY p.poll_id",
+            nativeQuery = true)
+    List<PollVotingItemIdView> findPollAndVotingItemIdsByGroupIdAfter(@Param("groupId") String groupId,
+                                                                      @Param("afterPollId") UUID afterPollId,
+                                                                      @Param("limit") int limit);
+
+    /* Set-based deletes, that remove the rows with a single statement each, instead of loading the entities and
+       deleting them one by one. The voting items' counter slots are removed by their foreign key's cascade. */
+
+    @Modifying
+    @Query(value = "DELETE FROM voting_item_options WHERE poll_id IN (:pollIds)", nativeQuery = true)
+    int deleteVotingItemsByPollIdIn(@Param("pollIds") List<UUID> pollIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM polls WHERE poll_id IN (:pollIds)", nativeQuery = true)
+    int deletePollsByPollIdIn(@Param("pollIds") List<UUID> pollIds);
+
+    /* Keyset pagination: pages are ordered by (timeCreated, pollId) descending,
+       and each following page starts right after the last poll of the previous one.
+       The row-value comparison is a single range of the (time_created DESC, poll_id DESC) indexes,
+       so a deep page costs the same as the first one. */
+
+    List<Poll> findAllByOrderByTimeCreatedDescPollIdDesc(Limit limit);
+
+    @Query("SELECT p FROM Poll p " +
+            "WHERE (p.timeCreated, p.pollId) < (:timeCreated, :pollId) " +
+            "ORDER BY p.timeCreated DESC, p.pollId DESC")
+    List<Poll> findAllAfter(@Param("timeCreated") LocalDateTime timeCreated,
+                            @Param("pollId") UUID pollId,
+                            Limit limit);
+
+    List<Poll> findByGroupIdInOrderByTimeCreatedDescPollIdDesc(List<String> groupIds, Limit limit);
+
+    @Query("SELECT p FROM Poll p " +
+            "WHERE p.groupId IN :groupIds AND (p.timeCreated, p.pollId) < (:timeCreated, :pollId) " +
+            "ORDER BY p.timeCreated DESC, p.pollId DESC")
+    List<Poll> findByGroupIdInAfter(@Param("groupIds") List<String> groupIds,
+                                    @Param("timeCreated") LocalDateTime timeCreated,
+                                    @Param("pollId") UUID pollId,
+                                    Limit limit);
+}
@@ -0,0 +1,11 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.repository.poll;
+
+import java.util.UUID;
+
+/**
+ * Projection of a poll's ID and the ID of one of its voting items, null if the poll has no voting items.
+ */
+public interface PollVotingItemIdView {
+    UUID getPollId();
+    Integer getVotingItemId();
+}
@@ -0,0 +1,39 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.repository.voting.item;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Batched vote count updates, executed with JDBC batching instead of a statement round trip per voting item,
+ * and the bookkeeping of the vote journal segments whose votes were applied.
+ */
+public interface VotingItemBatchRepository {
+    /**
+     * Adds the given deltas to the vote counts of the voting items, and records the given vote journal segments
+     * as applied, in a single transaction.
+     * Total counts (including the counter slots, in counter slots mode) are floored at zero.
+     * @param votingItemDeltas Map of voting item IDs to the number of votes to add (negative to remove votes).
+     * @param journalSegmentIds IDs of the vote journal segments the deltas were read from, may be empty.
+     * @return Map of voting item IDs to the number of removed votes that were dropped by the floor, only for voting items that had any.
+     */
+    Map<Integer, Long> addToVoteCounts(Map<Integer, Long> votingItemDeltas, Collection<String> journalSegmentIds);
+
+    /**
+     * @return The given vote journal segments, that were recorded as applied.
+     */
+    Set<String> findAppliedJournalSegments(Collection<String> journalSegmentIds);
+
+    /**
+     * Forgets the given applied vote journal segments, once they are deleted from the journal.
+     */
+    void deleteAppliedJournalSegments(Collection<String> journalSegmentIds);
+
+    /**
+     * Adds the given deltas to the vote counts of the voting items, with JDBC batching.
+     * A voting item's count is not updated if its total count (including the counter slots, in counter slots mode) would become negative.
+     * @param votingItemDeltas Map of voting item IDs to the number of votes to add (negative to remove votes).
+     * @return IDs of the voting items whose count was updated.
+     */
+    Set<Integer> addToVoteCountsIfNotNegative(Map<Integer, Integer> votingItemDeltas);
+}
@@ -0,0 +1,129 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.repository.voting.item;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class VotingItemBatchRepositoryImpl implements VotingItemBatchRepository {
+    private final JdbcTemplate jdbcTemplate;
+    /* Total vote count of 'voting_item_options v', its counter slots are only read in counter slots mode */
+    private final String totalVoteCount;
+
+    public VotingItemBatchRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                         @Value("${vote.counter-slots.enabled:false}") boolean counterSlotsEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.totalVoteCount = counterSlotsEnabled ? "v.vote_count + " + VotingItemRepository.SLOT_VOTE_COUNT : "v.vote_count";
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer, Long> addToVoteCounts(Map<Integer, Long> votingItemDeltas, Collection<String> journalSegmentIds) {
+        // Update the rows in ID order, so concurrent batches lock them in the same order and cannot deadlock
+        List<Map.Entry<Integer, Long>> sortedDeltas = votingItemDeltas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        Map<Integer, Long> droppedRemoves = findDroppedRemoves(sortedDeltas);
+
+        List<Object[]> batchArgs = sortedDeltas.stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .toList();
+        // The row's count is lowered at most by the total count, so the total count is floored at zero
+        jdbcTemplate.batchUpdate(
+                "UPDATE voting_item_options v SET vote_count = GREATEST(v.vote_count + ?, v.vote_count - (" + totalVoteCount + ")) " +
+                        "WHERE v.voting_item_id = ?",
+                batchArgs);
+
+        if (!journalSegmentIds.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO applied_vote_journal_segments (segment_id) VALUES (?) ON CONFLICT DO NOTHING",
+                    journalSegmentIds.stream().map(segmentId -> new Object[]{segmentId}).toList());
+        }
+        return droppedRemoves;
+    }
+
+    /**
+     * Locks the voting items that lose votes, and computes how many of their removed votes the floor at zero drops.
+     */
+    private Map<Integer, Long> findDroppedRemoves(List<Map.Entry<Integer, Long>> sortedDeltas) {
+        Map<Integer, Long> removedVotes = new HashMap<>();
+        sortedDeltas.stream()
+                .filter(entry -> entry.getValue() < 0)
+                .forEach(entry -> removedVotes.put(entry.getKey(), entry.getValue()));
+        if (removedVotes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Integer, Long> droppedRemoves = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT v.voting_item_id, " + totalVoteCount + " AS total_vote_count " +
+                        "FROM voting_item_options v WHERE v.voting_item_id IN (" + placeholders(removedVotes.size()) + ") " +
+                        "ORDER BY v.voting_item_id FOR UPDATE",
+                resultSet -> {
+                    int votingItemId = resultSet.getInt("voting_item_id");
+                    long remainingVoteCount = resultSet.getLong("total_vote_count") + removedVotes.get(votingItemId);
+                    if (remainingVoteCount < 0) {
+                        droppedRemoves.put(votingItemId, -remainingVoteCount);
+                    }
+                },
+                removedVotes.keySet().stream().sorted().toArray());
+        return droppedRemoves;
+    }
+
+    @Override
+    public Set<String> findAppliedJournalSegments(Collection<String> journalSegmentIds) {
+        if (journalSegmentIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT segment_id FROM applied_vote_journal_segments WHERE segment_id IN (" + placeholders(journalSegmentIds.size()) + ")",
+                String.class,
+                journalSegmentIds.toArray()));
+    }
+
+    @Override
+    public void deleteAppliedJournalSegments(Collection<String> journalSegmentIds) {
+        if (journalSegmentIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(
+                "DELETE FROM applied_vote_journal_segments WHERE segment_id IN (" + placeholders(journalSegmentIds.size()) + ")",
+                journalSegmentIds.toArray());
+    }
+
+    @Override
+    @Transactional
+    public Set<Integer> addToVoteCountsIfNotNegative(Map<Integer, Integer> votingItemDeltas) {
+        // Update the rows in ID order, so concurrent batches lock them in the same order and cannot deadlock
+        List<Map.Entry<Integer, Integer>> sortedDeltas = votingItemDeltas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        List<Object[]> batchArgs = sortedDeltas.stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey(), entry.getValue()})
+                .toList();
+
+        int[] updatedRows = jdbcTemplate.batchUpdate(
+                "UPDATE voting_item_options v SET vote_count = v.vote_count + ? " +
+                        "WHERE v.voting_item_id = ? AND " + totalVoteCount + " + ? >= 0",
+                batchArgs);
+
+        Set<Integer> updatedVotingItemIds = new HashSet<>();
+        for (int i = 0; i < updatedRows.length; i++) {
+            if (updatedRows[i] > 0) {
+                updatedVotingItemIds.add(sortedDeltas.get(i).getKey());
+            }
+        }
+        return updatedVotingItemIds;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,9 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.repository.voting.item;
+
+/**
+ * Projection of a voting item's description and vote count, as returned by vote count updates.
+ */
+public interface VotingItemCountView {
+    String getDescription();
+    int getVoteCount();
+}
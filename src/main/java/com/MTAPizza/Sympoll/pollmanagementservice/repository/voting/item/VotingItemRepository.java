@@ -2,9 +2,66 @@ package com.MTAPizza.Sympoll.pollmanagementservice.repository.voting.item;
 
 import com.MTAPizza.Sympoll.pollmanagementservice.model.voting.item.VotingItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 
 @Repository
-public interface VotingItemRepository extends JpaRepository<VotingItem, Integer> {
+public interface VotingItemRepository extends JpaRepository<VotingItem, Integer>, VotingItemBatchRepository {
+    /* Sum of a voting item's counter slots, for statements on 'voting_item_options v' in counter slots mode only */
+    String SLOT_VOTE_COUNT = "(SELECT COALESCE(SUM(s.vote_count), 0) FROM voting_item_counter_slots s WHERE s.voting_item_id = v.voting_item_id)";
+
+    /**
+     * Atomically adds the given delta to a voting item's vote count, in a single statement.
+     * The count is not updated if it would become negative.
+     * @param votingItemId ID of the voting item to update.
+     * @param delta Number of votes to add, negative to remove votes.
+     * @return The updated description and vote count, or empty if the voting item does not exist or the count would become negative.
+     */
+    @Query(value = "UPDATE voting_item_options v SET vote_count = v.vote_count + :delta " +
+            "WHERE v.voting_item_id = :votingItemId AND v.vote_count + :delta >= 0 " +
+            "RETURNING v.description AS \"description\", v.vote_count AS \"voteCount\"",
+            nativeQuery = true)
+    Optional<VotingItemCountView> addToVoteCount(@Param("votingItemId") int votingItemId, @Param("delta") int delta);
+
+    /**
+     * Counter slots mode variant of {@link #addToVoteCount(int, int)}: adds the delta to the voting item's own row,
+     * but checks and returns its total count, including the counter slots.
+     */
+    @Query(value = "UPDATE voting_item_options v SET vote_count = v.vote_count + :delta " +
+            "WHERE v.voting_item_id = :votingItemId AND v.vote_count + :delta + " + SLOT_VOTE_COUNT + " >= 0 " +
+            "RETURNING v.description AS \"description\", CAST(v.vote_count + " + SLOT_VOTE_COUNT + " AS INT) AS \"voteCount\"",
+            nativeQuery = true)
+    Optional<VotingItemCountView> addToVoteCountWithSlots(@Param("votingItemId") int votingItemId, @Param("delta") int delta);
+
+    /**
+     * Atomically adds votes to one of a voting item's counter slots, creating the slot if needed.
+     * Concurrent votes on a hot voting item are spread over its slots, instead of all waiting for the lock of its row.
+     * @param votingItemId ID of the voting item to update.
+     * @param slot Counter slot to add the votes to.
+     * @param delta Number of votes to add.
+     * @return The description and updated total vote count, or empty if the voting item does not exist.
+     */
+    @Query(value = "WITH updated_slot AS (" +
+            "INSERT INTO voting_item_counter_slots (voting_item_id, slot, vote_count) " +
+            "SELECT :votingItemId, :slot, :delta WHERE EXISTS (SELECT 1 FROM voting_item_options WHERE voting_item_id = :votingItemId) " +
+            "ON CONFLICT (voting_item_id, slot) DO UPDATE SET vote_count = voting_item_counter_slots.vote_count + EXCLUDED.vote_count) " +
+            // The statement's snapshot does not include its own slot update, so the delta is added explicitly
+            "SELECT v.description AS \"description\", CAST(v.vote_count + :delta + " + SLOT_VOTE_COUNT + " AS INT) AS \"voteCount\" " +
+            "FROM voting_item_options v WHERE v.voting_item_id = :votingItemId",
+            nativeQuery = true)
+    Optional<VotingItemCountView> addToVoteCountSlot(@Param("votingItemId") int votingItemId, @Param("slot") int slot, @Param("delta") int delta);
+
+    /**
+     * @return The sum of the counter slots of each of the given voting items, only for voting items that have slots.
+     */
+    @Query(value = "SELECT s.voting_item_id AS \"votingItemId\", CAST(SUM(s.vote_count) AS INT) AS \"slotVoteCount\" " +
+            "FROM voting_item_counter_slots s WHERE s.voting_item_id IN (:votingItemIds) GROUP BY s.voting_item_id",
+            nativeQuery = true)
+    List<VotingItemSlotCountView> findSlotVoteCounts(@Param("votingItemIds") Collection<Integer> votingItemIds);
 }
@@ -0,0 +1,9 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.repository.voting.item;
+
+/**
+ * Projection of the sum of a voting item's counter slots.
+ */
+public interface VotingItemSlotCountView {
+    int getVotingItemId();
+    int getSlotVoteCount();
+}
@@ -1,18 +1,27 @@
 package com.MTAPizza.Sympoll.pollmanagementservice.service.poll;
 
+import com.MTAPizza.Sympoll.pollmanagementservice.cache.GroupCache;
+import com.MTAPizza.Sympoll.pollmanagementservice.cache.PollViewCache;
+import com.MTAPizza.Sympoll.pollmanagementservice.cache.SingleFlight;
+import com.MTAPizza.Sympoll.pollmanagementservice.cache.UserCache;
 import com.MTAPizza.Sympoll.pollmanagementservice.client.GroupClient;
-import com.MTAPizza.Sympoll.pollmanagementservice.client.UserClient;
+import com.MTAPizza.Sympoll.pollmanagementservice.client.RequestHedger;
 import com.MTAPizza.Sympoll.pollmanagementservice.client.VoteClient;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.group.DeleteGroupPollsRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.group.DeleteGroupPollsResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.group.GroupResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.create.PollBulkCreateItemResult;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.create.PollBulkCreateResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.create.PollCreateRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.PollResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.delete.PollDeleteRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.delete.PollDeleteResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.page.PollCursor;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.page.PollPage;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.update.PollUpdateRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.update.PollUpdateResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.user.UserResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.voting.item.VotingItemResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.DeleteMultipleVotesRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.DeleteMultipleVotesResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.choice.VotingItemsCheckedRequest;
@@ -22,50 +31,133 @@ import com.MTAPizza.Sympoll.pollmanagementservice.exception.request.RequestFaile
 import com.MTAPizza.Sympoll.pollmanagementservice.model.voting.item.VotingItem;
 import com.MTAPizza.Sympoll.pollmanagementservice.model.poll.Poll;
 import com.MTAPizza.Sympoll.pollmanagementservice.repository.poll.PollRepository;
+import com.MTAPizza.Sympoll.pollmanagementservice.repository.poll.PollVotingItemIdView;
+import com.MTAPizza.Sympoll.pollmanagementservice.service.voting.item.VoteCounterSlots;
+import com.MTAPizza.Sympoll.pollmanagementservice.validator.LookupContext;
 import com.MTAPizza.Sympoll.pollmanagementservice.validator.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PollService {
+    private static final int BULK_CREATE_CHUNK_SIZE = 100;
+    private static final int DELETE_CHUNK_SIZE = 500;
+    private static final int MAX_DELETE_PASSES = 3;
+    /**
+     * Lowest poll ID, the first page of a group's polls to delete starts after it.
+     */
+    private static final UUID FIRST_POLL_ID = new UUID(0, 0);
+    /**
+     * View version of polls that are enriched but not cached, such as just created polls.
+     */
+    private static final long UNCACHED_VIEW_VERSION = -1;
+
     private final PollRepository pollRepository;
+    private final TransactionTemplate transactionTemplate;
+    @Qualifier("readOnlyTransactionTemplate")
+    private final TransactionTemplate readOnlyTransactionTemplate;
     private final Validator validator;
-    private final UserClient userClient;
+    private final UserCache userCache;
+    private final GroupCache groupCache;
+    @Qualifier("userServiceExecutor")
+    private final Executor userServiceExecutor;
+    @Qualifier("groupServiceExecutor")
+    private final Executor groupServiceExecutor;
+    @Qualifier("voteServiceExecutor")
+    private final Executor voteServiceExecutor;
     private final GroupClient groupClient;
     private final VoteClient voteClient;
+    private final RequestHedger voteChoicesHedger;
+    private final SingleFlight singleFlight;
+    private final PollViewCache pollViewCache;
+    private final VoteCounterSlots voteCounterSlots;
+
+    /**
+     * Key of a read shared by identical concurrent requests, see {@link SingleFlight}.
+     * Parameters a read does not take are null.
+     */
+    private record PollRead(String read, Object id, UUID userId, Integer limit, String after) {
+    }
 
     /**
      * Converts a list of Polls to PollResponses including creator and group names,
      * and optionally, the user's checked voting items if a userId is provided.
+     * Polls found in the poll view cache are not enriched again, but new PollResponses are not cached.
      *
      * @param polls The list of Polls to convert.
      * @param userId The UUID of the user to fetch choices for; if null, fetches without choices.
      * @return A list of PollResponses with added details.
      */
     public List<PollResponse> createPollResponsesWithFullDetails(List<Poll> polls, UUID userId) {
-        // Collect all unique creator and group IDs
-        Set<UUID> creatorIds = polls.stream()
+        return createPollResponsesWithFullDetails(polls, userId, UNCACHED_VIEW_VERSION);
+    }
+
+    /**
+     * Converts a list of Polls to PollResponses, like {@link #createPollResponsesWithFullDetails(List, UUID)}.
+     * Only polls missing from the poll view cache are enriched with creator and group data, and the fully enriched
+     * ones are cached. The user's checked voting items are applied on top of the (user-independent) cached polls.
+     *
+     * @param viewVersion Version of the poll view cache, taken before the polls were loaded; UNCACHED_VIEW_VERSION to not cache them.
+     */
+    private List<PollResponse> createPollResponsesWithFullDetails(List<Poll> polls, UUID userId, long viewVersion) {
+        return createPollResponsesWithFullDetails(polls, userId, viewVersion, new LookupContext());
+    }
+
+    /**
+     * Converts a list of Polls to PollResponses, like {@link #createPollResponsesWithFullDetails(List, UUID, long)}.
+     * Users and groups already fetched while validating the request are taken from the lookup context, not fetched again.
+     */
+    private List<PollResponse> createPollResponsesWithFullDetails(List<Poll> polls, UUID userId, long viewVersion,
+                                                                 LookupContext lookupContext) {
+        if (polls.isEmpty()) {
+            // Nothing to enrich, skip the calls to the other services
+            return Collections.emptyList();
+        }
+
+        // Cached polls are used as is, only the missing ones need the entity's voting items and the other services' data
+        Map<UUID, PollResponse> cachedPollViews = pollViewCache.getAll(polls.stream().map(Poll::getPollId).toList());
+        List<Poll> uncachedPolls = polls.stream()
+                .filter(poll -> !cachedPollViews.containsKey(poll.getPollId()))
+                .toList();
+
+        // Collect all unique creator and group IDs, that were not fetched during the request's validation
+        Set<UUID> creatorIds = uncachedPolls.stream()
                 .map(Poll::getCreatorId)
+                .filter(creatorId -> !lookupContext.getUsers().containsKey(creatorId))
                 .collect(Collectors.toSet());
-        Set<String> groupIds = polls.stream()
+        Set<String> groupIds = uncachedPolls.stream()
                 .map(Poll::getGroupId)
+                .filter(groupId -> !lookupContext.getGroups().containsKey(groupId))
                 .collect(Collectors.toSet());
 
-        // Fetch creator data and group names asynchronously
-        CompletableFuture<Map<UUID, UserResponse>> creatorsDataFuture = CompletableFuture.supplyAsync(() -> getUsersDataMap(creatorIds));
-        CompletableFuture<Map<String, GroupResponse>> groupsDataFuture = CompletableFuture.supplyAsync(() -> getGroupDataMap(groupIds));
+        // Fetch creator data and group names asynchronously, each on the executor of its service
+        CompletableFuture<Map<UUID, UserResponse>> creatorsDataFuture = creatorIds.isEmpty()
+                ? CompletableFuture.completedFuture(Collections.emptyMap())
+                : supplyAsync(() -> getUsersDataMap(creatorIds), userServiceExecutor);
+        CompletableFuture<Map<String, GroupResponse>> groupsDataFuture = groupIds.isEmpty()
+                ? CompletableFuture.completedFuture(Collections.emptyMap())
+                : supplyAsync(() -> getGroupDataMap(groupIds), groupServiceExecutor);
 
         CompletableFuture<Void> combinedFuture = CompletableFuture.allOf(creatorsDataFuture, groupsDataFuture);
         CompletableFuture<Map<UUID, List<Integer>>> votingItemsFuture = null;
@@ -75,11 +167,9 @@ public class PollService {
             Map<UUID, Set<Integer>> pollToVotingItemIdsMap = polls.stream()
                     .collect(Collectors.toMap(
                             Poll::getPollId,
-                            poll -> poll.getVotingItems().stream()
-                                    .map(VotingItem::getVotingItemId)
-                                    .collect(Collectors.toSet())
+                            poll -> getVotingItemIds(poll, cachedPollViews.get(poll.getPollId()))
                     ));
-            votingItemsFuture = CompletableFuture.supplyAsync(() -> fetchUserVotedItems(pollToVotingItemIdsMap, userId));
+            votingItemsFuture = supplyAsync(() -> fetchUserVotedItems(pollToVotingItemIdsMap, userId), voteServiceExecutor);
             combinedFuture = CompletableFuture.allOf(combinedFuture, votingItemsFuture);
         }
 
@@ -87,22 +177,105 @@ public class PollService {
         combinedFuture.join();
 
         // Get results from futures
-        Map<UUID, UserResponse> creatorsDataMap = creatorsDataFuture.join();
-        Map<String, GroupResponse> groupsDataMap = groupsDataFuture.join();
+        Map<UUID, UserResponse> creatorsDataMap = new HashMap<>(creatorsDataFuture.join());
+        creatorsDataMap.putAll(lookupContext.getUsers());
+        Map<String, GroupResponse> groupsDataMap = new HashMap<>(groupsDataFuture.join());
+        groupsDataMap.putAll(lookupContext.getGroups());
         Map<UUID, List<Integer>> userVotedItemsMap = (votingItemsFuture != null) ? votingItemsFuture.join() : Collections.emptyMap();
 
         // Create poll responses
         return polls.stream()
                 .map(poll -> {
                     List<Integer> checkedVotingItems = userVotedItemsMap.getOrDefault(poll.getPollId(), Collections.emptyList());
-                    UserResponse creatorData = creatorsDataMap.getOrDefault(poll.getCreatorId(), new UserResponse(null, "Unknown Creator", null, null, null));
-                    GroupResponse groupData = groupsDataMap.getOrDefault(poll.getGroupId(), new GroupResponse(null, "Unknown Group", null));
-
-                    return poll.toPollResponse(creatorData, groupData, checkedVotingItems);
+                    PollResponse pollView = cachedPollViews.get(poll.getPollId());
+                    if (pollView == null) {
+                        UserResponse creatorData = creatorsDataMap.getOrDefault(poll.getCreatorId(), new UserResponse(null, "Unknown Creator", null, null, null));
+                        GroupResponse groupData = groupsDataMap.getOrDefault(poll.getGroupId(), new GroupResponse(null, "Unknown Group", null));
+                        pollView = poll.toPollResponse(creatorData, groupData, Collections.emptyList());
+
+                        // Polls with fallback data are not cached, so they are enriched again once the services answer.
+                        // Uncached polls are not put either, rather than relying on the cache to reject their version
+                        if (viewVersion != UNCACHED_VIEW_VERSION
+                                && creatorsDataMap.containsKey(poll.getCreatorId()) && groupsDataMap.containsKey(poll.getGroupId())) {
+                            pollViewCache.put(pollView, viewVersion);
+                        }
+                    }
+
+                    return withCheckedVotingItems(pollView, checkedVotingItems);
                 })
                 .collect(Collectors.toList());
     }
 
+    private static Set<Integer> getVotingItemIds(Poll poll, PollResponse cachedPollView) {
+        if (cachedPollView != null) {
+            return cachedPollView.votingItems().stream()
+                    .map(VotingItemResponse::votingItemId)
+                    .collect(Collectors.toSet());
+        }
+        return poll.getVotingItems().stream()
+                .map(VotingItem::getVotingItemId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Applies a user's checked voting items to a user-independent PollResponse.
+     */
+    private static PollResponse withCheckedVotingItems(PollResponse pollView, List<Integer> checkedVotingItems) {
+        if (checkedVotingItems.isEmpty()) {
+            return pollView;
+        }
+
+        return new PollResponse(
+                pollView.pollId(),
+                pollView.title(),
+                pollView.description(),
+                pollView.nofAnswersAllowed(),
+                pollView.creatorId(),
+                pollView.creatorName(),
+                pollView.creatorProfilePictureUrl(),
+                pollView.groupId(),
+                pollView.groupName(),
+                pollView.groupProfilePictureUrl(),
+                pollView.timeCreated(),
+                pollView.timeUpdated(),
+                pollView.deadline(),
+                pollView.votingItems().stream()
+                        .map(votingItem -> new VotingItemResponse(
+                                votingItem.votingItemId(),
+                                votingItem.description(),
+                                checkedVotingItems.contains(votingItem.votingItemId()),
+                                votingItem.voteCount()))
+                        .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Runs a call to another service on the service's executor.
+     * If the executor rejects the call, the call's fallback (an empty map) is used, like for a failed call.
+     */
+    private <K, V> CompletableFuture<Map<K, V>> supplyAsync(Supplier<Map<K, V>> serviceCall, Executor executor) {
+        try {
+            return CompletableFuture.supplyAsync(serviceCall, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Call to another service was rejected by its executor, using the fallback data", e);
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+    }
+
+    /**
+     * Runs a query of polls in a short read-only transaction, and loads the polls' voting items within it,
+     * so the polls can then be enriched with the other services' data without holding a database connection.
+     */
+    private List<Poll> loadPolls(Supplier<List<Poll>> pollsQuery) {
+        return readOnlyTransactionTemplate.execute(status -> {
+            List<Poll> polls = pollsQuery.get();
+            // Loads the voting items of all the polls with batched queries
+            polls.forEach(poll -> Hibernate.initialize(poll.getVotingItems()));
+            voteCounterSlots.loadSlotVoteCounts(polls.stream().flatMap(poll -> poll.getVotingItems().stream()).toList());
+            return polls;
+        });
+    }
+
     /**
      * Simplified method to fetch PollResponses without user-specific choices.
      * @param polls The list of Polls to convert.
@@ -113,37 +286,50 @@ public class PollService {
     }
 
     /**
-     * Fetches a map of users' data using the user service.
+     * Fetches a single page of a poll feed and converts it to PollResponses.
+     * One poll more than the limit is fetched, to know whether a following page exists.
+     *
+     * @param limit Maximal number of polls in the page.
+     * @param after Cursor of the previous page's last poll; if null, the first page is fetched.
+     * @param userId The UUID of the user to fetch choices for; if null, fetches without choices.
+     * @param firstPage Fetches the first page of the feed, up to the given limit.
+     * @param nextPage Fetches the page following the given cursor, up to the given limit.
+     * @return The page of PollResponses, with the cursor of the next page if there is one.
+     */
+    private PollPage getPollPage(int limit, String after, UUID userId,
+                                 Function<Limit, List<Poll>> firstPage,
+                                 BiFunction<PollCursor, Limit, List<Poll>> nextPage) {
+        validator.validatePageLimit(limit);
+
+        long viewVersion = pollViewCache.version();
+        Limit fetchLimit = Limit.of(limit + 1);
+        List<Poll> polls = loadPolls(() -> (after == null) ? firstPage.apply(fetchLimit) : nextPage.apply(PollCursor.decode(after), fetchLimit));
+
+        String nextCursor = null;
+        if (polls.size() > limit) {
+            polls = polls.subList(0, limit);
+            nextCursor = PollCursor.of(polls.get(limit - 1)).encode();
+        }
+
+        return new PollPage(createPollResponsesWithFullDetails(polls, userId, viewVersion), nextCursor);
+    }
+
+    /**
+     * Fetches a map of users' data using the user cache, only missing users are fetched from the user service.
      * @param creatorIds Set of UUIDs representing creator IDs.
      * @return A map the users' data.
      */
     private Map<UUID, UserResponse> getUsersDataMap(Set<UUID> creatorIds) {
-        try {
-            log.info("Batch fetching creators' data from user service");
-            ResponseEntity<List<UserResponse>> response = userClient.getUsersListByIds(new ArrayList<>(creatorIds));
-            return Objects.requireNonNull(response.getBody()).stream()
-                    .collect(Collectors.toMap(UserResponse::userId, (userResponse) -> userResponse));
-        } catch (Exception e) {
-            log.error("Failed to fetch creator names", e);
-            return Collections.emptyMap();
-        }
+        return userCache.getUsers(creatorIds);
     }
 
     /**
-     * Fetches group names using the group service.
+     * Fetches groups' data using the group cache, only missing groups are fetched from the group service.
      * @param groupIds Set of strings representing group IDs.
-     * @return A map of group IDs to group names.
+     * @return A map of group IDs to groups' data.
      */
     private Map<String, GroupResponse> getGroupDataMap(Set<String> groupIds) {
-        try {
-            log.info("Batch fetching groups' data from group service");
-            ResponseEntity<List<GroupResponse>> response = groupClient.getGroupDataList(new ArrayList<>(groupIds));
-            return Objects.requireNonNull(response.getBody()).stream()
-                    .collect(Collectors.toMap(GroupResponse::groupId, (groupResponse) -> groupResponse));
-        } catch (Exception e) {
-            log.error("Failed to fetch group names", e);
-            return Collections.emptyMap();
-        }
+        return groupCache.getGroups(groupIds);
     }
 
     /**
@@ -162,8 +348,9 @@ public class PollService {
                     .flatMap(Set::stream)
                     .collect(Collectors.toSet());
 
-            // Fetch all user choices for the relevant voting items
-            ResponseEntity<VotingItemsCheckedResponse> response = voteClient.getPollVotesByUser(new VotingItemsCheckedRequest(new ArrayList<>(allVotingItemIds), userId));
+            // Fetch all user choices for the relevant voting items, hedging the call if it is slow
+            VotingItemsCheckedRequest votingItemsCheckedRequest = new VotingItemsCheckedRequest(new ArrayList<>(allVotingItemIds), userId);
+            ResponseEntity<VotingItemsCheckedResponse> response = voteChoicesHedger.call(() -> voteClient.getPollVotesByUser(votingItemsCheckedRequest));
             List<Integer> checkedVotingItems = Objects.requireNonNull(response.getBody(), "No body in response").votingItemIds();
 
             // Map checked voting items to poll IDs
@@ -186,45 +373,125 @@ public class PollService {
      * @param pollCreateRequest Details of the poll to add.
      * @return The poll that was added to the database.
      */
-    @Transactional
     public PollResponse createPoll(PollCreateRequest pollCreateRequest) {
-        validator.validateNewPoll(pollCreateRequest);
+        // Validated before the transaction, as the validation calls the user and group services.
+        // The creator's and group's data fetched by the validation is reused in the response.
+        LookupContext lookupContext = new LookupContext();
+        validator.validateNewPoll(pollCreateRequest, lookupContext);
 
-        Poll poll = Poll.builder()
-                .title(pollCreateRequest.title())
-                .description(pollCreateRequest.description())
-                .nofAnswersAllowed(pollCreateRequest.nofAnswersAllowed())
-                .creatorId(pollCreateRequest.creatorId())
-                .groupId(pollCreateRequest.groupId())
-                .deadline(convertToDate(pollCreateRequest.deadline()))
-                .build();
-        poll.setVotingItems(convertVotingItemsToModel(pollCreateRequest.votingItems(), poll.getPollId()));
-
-        pollRepository.save(poll);
+        Poll poll = convertPollToModel(pollCreateRequest);
+        transactionTemplate.executeWithoutResult(status -> pollRepository.save(poll));
         log.info("POLL: {} by USER: {} was created.", poll.getPollId(), poll.getCreatorId());
 
         // Wrap the poll in a list to use batch fetching logic
         List<Poll> singlePollList = Collections.singletonList(poll);
 
         // Fetch and return the poll response with creator and group names
-        List<PollResponse> pollResponses = createPollResponsesWithFullDetails(singlePollList);
+        List<PollResponse> pollResponses = createPollResponsesWithFullDetails(singlePollList, null, UNCACHED_VIEW_VERSION, lookupContext);
 
         // Return the first (and only) PollResponse from the list
         return pollResponses.get(0);
     }
 
+    /**
+     * Create and add a batch of polls to the database.
+     * The batch's distinct creators and groups are validated once, and the valid polls are inserted in chunks,
+     * each in its own transaction with batched statements. An invalid poll, or a chunk that fails to be inserted,
+     * does not fail the rest of the batch.
+     *
+     * @param pollCreateRequests Details of the polls to add.
+     * @return The result of each poll in the batch, in the order they were given, including errors of polls that were not created.
+     */
+    public PollBulkCreateResponse createPolls(List<PollCreateRequest> pollCreateRequests) {
+        validator.validateBulkCreateRequest(pollCreateRequests);
+        LookupContext lookupContext = new LookupContext();
+        Map<Integer, String> errors = new HashMap<>(validator.validateNewPolls(pollCreateRequests, lookupContext));
+
+        List<Integer> validIndexes = new ArrayList<>();
+        Map<Integer, Poll> polls = new HashMap<>();
+        for (int index = 0; index < pollCreateRequests.size(); index++) {
+            if (!errors.containsKey(index)) {
+                validIndexes.add(index);
+                polls.put(index, convertPollToModel(pollCreateRequests.get(index)));
+            }
+        }
+
+        for (int from = 0; from < validIndexes.size(); from += BULK_CREATE_CHUNK_SIZE) {
+            List<Integer> chunkIndexes = validIndexes.subList(from, Math.min(from + BULK_CREATE_CHUNK_SIZE, validIndexes.size()));
+            List<Poll> chunk = chunkIndexes.stream().map(polls::get).toList();
+            try {
+                transactionTemplate.executeWithoutResult(status -> pollRepository.saveAll(chunk));
+            } catch (DataAccessException e) {
+                log.error("Failed to create a chunk of {} polls, creating them one by one", chunk.size(), e);
+                chunkIndexes.forEach(index -> createPollOfFailedChunk(index, pollCreateRequests.get(index), polls, errors));
+            }
+        }
+
+        List<Poll> createdPolls = validIndexes.stream()
+                .filter(index -> !errors.containsKey(index))
+                .map(polls::get)
+                .toList();
+        log.info("Batch of {} polls created {} polls", pollCreateRequests.size(), createdPolls.size());
+
+        // Creators and groups were all fetched by the validation, so no other service is called again
+        Map<UUID, PollResponse> pollResponses = createPollResponsesWithFullDetails(createdPolls, null, UNCACHED_VIEW_VERSION, lookupContext).stream()
+                .collect(Collectors.toMap(PollResponse::pollId, pollResponse -> pollResponse));
+
+        List<PollBulkCreateItemResult> results = new ArrayList<>();
+        for (int index = 0; index < pollCreateRequests.size(); index++) {
+            String error = errors.get(index);
+            PollResponse pollResponse = (error == null) ? pollResponses.get(polls.get(index).getPollId()) : null;
+            results.add(new PollBulkCreateItemResult(index, pollResponse, error));
+        }
+        return new PollBulkCreateResponse(results);
+    }
+
+    /**
+     * 'createPolls' helper, creating a poll of a chunk that failed in its own transaction, so a single bad poll
+     * does not fail the rest of its chunk. The poll is converted again, as the failed chunk's entities were
+     * already assigned IDs that were rolled back.
+     */
+    private void createPollOfFailedChunk(int index, PollCreateRequest pollCreateRequest, Map<Integer, Poll> polls, Map<Integer, String> errors) {
+        Poll poll = convertPollToModel(pollCreateRequest);
+        polls.put(index, poll);
+        try {
+            transactionTemplate.executeWithoutResult(status -> pollRepository.save(poll));
+        } catch (DataAccessException e) {
+            log.error("Failed to create poll {} of a batch of polls", index, e);
+            errors.put(index, "Poll could not be saved");
+        }
+    }
+
+    /**
+     * Converts a poll create request into a new Poll entity, with its voting items.
+     *
+     * @param pollCreateRequest Details of the poll.
+     * @return The poll entity, not yet saved.
+     */
+    private Poll convertPollToModel(PollCreateRequest pollCreateRequest) {
+        Poll poll = Poll.builder()
+                .title(pollCreateRequest.title())
+                .description(pollCreateRequest.description())
+                .nofAnswersAllowed(pollCreateRequest.nofAnswersAllowed())
+                .creatorId(pollCreateRequest.creatorId())
+                .groupId(pollCreateRequest.groupId())
+                .deadline(convertToDate(pollCreateRequest.deadline()))
+                .build();
+        poll.setVotingItems(convertVotingItemsToModel(pollCreateRequest.votingItems()));
+        return poll;
+    }
+
     /**
      * Converts a list of voting items strings into a list of Answer entities.
      *
      * @param votingItems List of voting items strings to be converted.
      * @return List of voting items entities.
      */
-    private List<VotingItem> convertVotingItemsToModel(List<String> votingItems, UUID pollId) {
+    private List<VotingItem> convertVotingItemsToModel(List<String> votingItems) {
         List<VotingItem> resVotingItems = new ArrayList<>();
 
         for (String votingItem : votingItems) {
             VotingItem newVotingItem = new VotingItem();
-            newVotingItem.setPollId(pollId);
             newVotingItem.setDescription(votingItem);
             newVotingItem.setVoteCount(0);
             resVotingItems.add(newVotingItem);
@@ -252,12 +519,25 @@ public class PollService {
      */
     public List<PollResponse> getAllPolls() {
         log.info("Retrieving all polls in database...");
-        List<Poll> polls =  pollRepository.findAll();
+        // Sort the polls before enriching them, so the enrichment does not need to be re-ordered
+        long viewVersion = pollViewCache.version();
+        List<Poll> polls = loadPolls(pollRepository::findAllByOrderByTimeCreatedDescPollIdDesc);
 
-        return createPollResponsesWithFullDetails(polls)
-                .stream()
-                .sorted(Comparator.comparing(PollResponse::timeCreated).reversed())
-                .toList();
+        return createPollResponsesWithFullDetails(polls, null, viewVersion);
+    }
+
+    /**
+     * Retrieves a single page of all polls from the repository.
+     *
+     * @param limit Maximal number of polls in the page.
+     * @param after Cursor of the previous page; if null, the first page is retrieved.
+     * @return Page of poll responses in descending order by creation date.
+     */
+    public PollPage getAllPolls(int limit, String after) {
+        log.info("Retrieving a page of all polls in database...");
+        return getPollPage(limit, after, null,
+                pollRepository::findAllByOrderByTimeCreatedDescPollIdDesc,
+                (cursor, fetchLimit) -> pollRepository.findAllAfter(cursor.timeCreated(), cursor.pollId(), fetchLimit));
     }
 
     /**
@@ -266,22 +546,23 @@ public class PollService {
      * @param pollDeleteRequest ID of the poll to delete and the ID of the user.
      * @return the ID of the poll deleted.
      */
-    @Transactional
     public PollDeleteResponse deletePoll(PollDeleteRequest pollDeleteRequest) {
+        // Validated before the deletion's transaction, as the validation may call the group service
         validator.validateDeletePollRequest(pollDeleteRequest);
         // TODO: send request to voting service to delete all corresponding votes.
         log.info("Deleting poll with ID: {}", pollDeleteRequest.pollId());
         pollRepository.deleteById(pollDeleteRequest.pollId());
+        pollViewCache.invalidate(List.of(pollDeleteRequest.pollId()));
         log.info("POLL: {} was deleted.", pollDeleteRequest.pollId());
         return new PollDeleteResponse(pollDeleteRequest.pollId());
     }
 
-    @Transactional
     public PollUpdateResponse updatePoll(PollUpdateRequest pollUpdateRequest) {
         if (pollUpdateRequest.pollId() == null) {
             throw new RequestFailedException("Poll ID cannot be null.");
         }
 
+        // Validated before the update's transaction, as the validation may call the group service
         validator.validateDeletePollRequest(new PollDeleteRequest(
                 pollUpdateRequest.pollId(),
                 pollUpdateRequest.userId(),
@@ -289,12 +570,18 @@ public class PollService {
         ));
 
         log.info("Updating the poll with ID: {}", pollUpdateRequest.pollId());
-        Optional<Poll> pollToUpdate = pollRepository.findById(pollUpdateRequest.pollId());
+        Optional<Poll> pollToUpdate = transactionTemplate.execute(status -> {
+            Optional<Poll> updatedPoll = pollRepository.findById(pollUpdateRequest.pollId());
+            updatedPoll.ifPresent(poll -> {
+                poll.setTitle(pollUpdateRequest.title());
+                poll.setDescription(pollUpdateRequest.description());
+                pollRepository.save(poll);
+                pollViewCache.invalidate(List.of(poll.getPollId()));
+            });
+            return updatedPoll;
+        });
         if (pollToUpdate.isPresent()) {
             Poll poll = pollToUpdate.get();
-            poll.setTitle(pollUpdateRequest.title());
-            poll.setDescription(pollUpdateRequest.description());
-            pollRepository.save(poll);
             log.info("Poll with ID: {} was updated successfully.", pollUpdateRequest.pollId());
             return new PollUpdateResponse(
                     poll.getPollId(),
@@ -314,17 +601,29 @@ public class PollService {
      * @return The retrieved poll's details.
      */
     public PollResponse getPollById(UUID pollId) {
+        return singleFlight.run(new PollRead("by-poll-id", pollId, null, null, null), () -> readPollById(pollId));
+    }
+
+    private PollResponse readPollById(UUID pollId) {
+        // A deleted poll is invalidated, so a cached poll exists and needs no database access at all
+        PollResponse cachedPollView = pollViewCache.getAll(List.of(pollId)).get(pollId);
+        if (cachedPollView != null) {
+            return cachedPollView;
+        }
+
         validator.validateGetPollByIdRequest(pollId);
 
         log.info("Retrieving poll with ID: {}", pollId);
 
-        Poll poll = pollRepository.getReferenceById(pollId);
-
+        long viewVersion = pollViewCache.version();
         // Wrap the poll in a list to use batch fetching logic
-        List<Poll> singlePollList = Collections.singletonList(poll);
+        List<Poll> singlePollList = loadPolls(() -> pollRepository.findById(pollId).stream().toList());
+        if (singlePollList.isEmpty()) {
+            throw new ResourceNotFoundException("Poll with id " + pollId + " does not exist");
+        }
 
         // Fetch and return the poll response with creator and group names
-        List<PollResponse> pollResponses = createPollResponsesWithFullDetails(singlePollList);
+        List<PollResponse> pollResponses = createPollResponsesWithFullDetails(singlePollList, null, viewVersion);
 
         // Return the first (and only) PollResponse from the list
         return pollResponses.get(0);
@@ -338,19 +637,35 @@ public class PollService {
      *      *               If provided, polls will return along with the user's choices.
      */
     public List<PollResponse> getPollsByGroupId(String groupId, UUID userId) {
+        return singleFlight.run(new PollRead("by-group-id", groupId, userId, null, null), () -> readPollsByGroupId(groupId, userId));
+    }
+
+    private List<PollResponse> readPollsByGroupId(String groupId, UUID userId) {
         validator.validateGetPollsByGroupIdRequest(groupId);
 
         log.info("Retrieving all polls by group ID: {}", groupId);
-        List<Poll> polls = pollRepository
-                .findAll()
-                .stream()
-                .filter(poll -> poll.getGroupId().equals(groupId))
-                .toList();
+        // Filtering and ordering are done by the database, using the (group_id, time_created) index
+        long viewVersion = pollViewCache.version();
+        List<Poll> polls = loadPolls(() -> pollRepository.findByGroupIdOrderByTimeCreatedDescPollIdDesc(groupId));
 
-        return createPollResponsesWithFullDetails(polls, userId)
-                .stream()
-                .sorted(Comparator.comparing(PollResponse::timeCreated).reversed())
-                .toList();
+        return createPollResponsesWithFullDetails(polls, userId, viewVersion);
+    }
+
+    /**
+     * Get a single page of the polls of a group.
+     * Sorted by creation date, newest first.
+     * @param groupId The group id to fetch the polls from
+     * @param userId Optional parameter that may be null. If provided, polls will return along with the user's choices.
+     * @param limit Maximal number of polls in the page.
+     * @param after Cursor of the previous page; if null, the first page is retrieved.
+     */
+    public PollPage getPollsByGroupId(String groupId, UUID userId, int limit, String after) {
+        return singleFlight.run(new PollRead("by-group-id", groupId, userId, limit, after), () -> {
+            validator.validateGetPollsByGroupIdRequest(groupId);
+
+            log.info("Retrieving a page of polls by group ID: {}", groupId);
+            return getPollPageOfGroups(List.of(groupId), userId, limit, after);
+        });
     }
 
     /**
@@ -362,25 +677,38 @@ public class PollService {
      *               If provided, polls will return along with the user's choices.
      */
     public List<PollResponse> getPollsByMultipleGroupIds(List<String> groupIds, UUID userId) {
+        return singleFlight.run(new PollRead("by-multiple-group-ids", List.copyOf(groupIds), userId, null, null),
+                () -> readPollsByMultipleGroupIds(groupIds, userId));
+    }
+
+    private List<PollResponse> readPollsByMultipleGroupIds(List<String> groupIds, UUID userId) {
         validator.validateGetPollsByMultipleGroupIdsRequest(groupIds);
 
         log.info("Retrieving all polls by multiple group IDs: {}", groupIds);
-        List<Poll> resPolls = new ArrayList<>();
-        for (String groupId : groupIds) {
-            resPolls.addAll(
-                    pollRepository
-                            .findAll()
-                            .stream()
-                            .filter(poll -> poll.getGroupId().equals(groupId))
-                            .toList());
-        }
-        // First Sort the result polls by date, most recent poll first,
-        // then map each Poll to a PollResponse object,
-        // and return the result.
-        return createPollResponsesWithFullDetails(resPolls, userId)
-                .stream()
-                .sorted(Comparator.comparing(PollResponse::timeCreated).reversed())
-                .toList();
+        // A single 'group_id IN (...)' query, already sorted by date with the most recent poll first,
+        // so the cost does not grow with the number of requested groups.
+        long viewVersion = pollViewCache.version();
+        List<Poll> polls = loadPolls(() -> pollRepository.findByGroupIdInOrderByTimeCreatedDescPollIdDesc(groupIds));
+
+        return createPollResponsesWithFullDetails(polls, userId, viewVersion);
+    }
+
+    /**
+     * Get a single page of the polls of multiple groups.
+     * Sorted by creation date, newest first.
+     *
+     * @param groupIds The group ids to fetch the polls from
+     * @param userId Optional parameter that may be null. If provided, polls will return along with the user's choices.
+     * @param limit Maximal number of polls in the page.
+     * @param after Cursor of the previous page; if null, the first page is retrieved.
+     */
+    public PollPage getPollsByMultipleGroupIds(List<String> groupIds, UUID userId, int limit, String after) {
+        return singleFlight.run(new PollRead("by-multiple-group-ids", List.copyOf(groupIds), userId, limit, after), () -> {
+            validator.validateGetPollsByMultipleGroupIdsRequest(groupIds);
+
+            log.info("Retrieving a page of polls by multiple group IDs: {}", groupIds);
+            return getPollPageOfGroups(groupIds, userId, limit, after);
+        });
     }
 
     /**
@@ -388,44 +716,119 @@ public class PollService {
      * Polls are returned sorted in descending order by creation date.
      */
     public List<PollResponse> getAllUserPolls(UUID userId) {
+        return singleFlight.run(new PollRead("all-user-polls", null, userId, null, null), () -> {
             List<String> userGroups = Objects.requireNonNull(
                     Objects.requireNonNull(groupClient.getAllUserGroups(userId)
                             .getBody()).userGroups());
 
-            List<Poll> polls = pollRepository.findByGroupIdIn(userGroups);
+            // Polls are sorted by timeCreated in descending order by the database, before they are enriched
+            long viewVersion = pollViewCache.version();
+            List<Poll> polls = loadPolls(() -> pollRepository.findByGroupIdInOrderByTimeCreatedDescPollIdDesc(userGroups));
 
-            // Sort polls by timeCreated in descending order in the service layer
-            return createPollResponsesWithFullDetails(polls, userId)
-                    .stream().sorted(Comparator.comparing(PollResponse::timeCreated).reversed())
-                    .toList();
+            return createPollResponsesWithFullDetails(polls, userId, viewVersion);
+        });
+    }
+
+    /**
+     * Get a single page of the polls from all groups the given user is a member of.
+     * Polls are returned sorted in descending order by creation date.
+     *
+     * @param limit Maximal number of polls in the page.
+     * @param after Cursor of the previous page; if null, the first page is retrieved.
+     */
+    public PollPage getAllUserPolls(UUID userId, int limit, String after) {
+        return singleFlight.run(new PollRead("all-user-polls", null, userId, limit, after), () -> {
+            List<String> userGroups = Objects.requireNonNull(
+                    Objects.requireNonNull(groupClient.getAllUserGroups(userId)
+                            .getBody()).userGroups());
+
+            return getPollPageOfGroups(userGroups, userId, limit, after);
+        });
+    }
+
+    /**
+     * Fetches a single page of the polls of the given groups, using the (group_id, time_created) index.
+     */
+    private PollPage getPollPageOfGroups(List<String> groupIds, UUID userId, int limit, String after) {
+        return getPollPage(limit, after, userId,
+                fetchLimit -> pollRepository.findByGroupIdInOrderByTimeCreatedDescPollIdDesc(groupIds, fetchLimit),
+                (cursor, fetchLimit) -> pollRepository.findByGroupIdInAfter(groupIds, cursor.timeCreated(), cursor.pollId(), fetchLimit));
     }
 
     /**
      * Deleting all polls related to the given group id.
+     * The group's polls are read in pages of poll IDs and their voting items' IDs, with projection queries that do not
+     * load the polls. The polls of each page are then deleted with set-based statements in their own short transaction,
+     * so a large group is neither held in memory nor locked in one long transaction.
+     * As the polls are not deleted in the transaction that read them, polls created in the meantime can be missed,
+     * so the group's polls are read again until none are left, for at most MAX_DELETE_PASSES passes.
      * @param deleteGroupPollsRequest The given group id.
      * @return A DTO with the removed poll ids.
      */
-    @Transactional
     public DeleteGroupPollsResponse deleteGroupPolls(DeleteGroupPollsRequest deleteGroupPollsRequest) {
-        List<Poll> groupPolls = pollRepository.findByGroupId(deleteGroupPollsRequest.groupId());
-        List<UUID> pollIds = groupPolls.stream().map(Poll::getPollId).toList();
+        String groupId = deleteGroupPollsRequest.groupId();
+        List<UUID> deletedPollIds = new ArrayList<>();
+        int nofPasses = 0;
+        int nofPassDeletedPolls;
+        do {
+            nofPassDeletedPolls = deleteGroupPollsPass(groupId, deletedPollIds);
+            nofPasses++;
+        } while (nofPassDeletedPolls > 0 && nofPasses < MAX_DELETE_PASSES);
+
+        if (nofPassDeletedPolls > 0) {
+            // Polls keep being created for the group, the request does not chase them any further
+            log.warn("Polls of group {} were still being created after {} deletion passes, polls created during the last pass may be left",
+                    groupId, MAX_DELETE_PASSES);
+        }
+        log.info("{} polls of group {} were deleted", deletedPollIds.size(), groupId);
+        return new DeleteGroupPollsResponse(deletedPollIds);
+    }
+
+    /**
+     * Reads the group's current polls page by page and deletes each page, see {@link #deleteGroupPolls(DeleteGroupPollsRequest)}.
+     * @param deletedPollIds The IDs of the deleted polls are added to it.
+     * @return The number of polls deleted by this pass, 0 if the group had no polls left.
+     */
+    private int deleteGroupPollsPass(String groupId, List<UUID> deletedPollIds) {
+        int nofDeletedPolls = 0;
+        UUID afterPollId = FIRST_POLL_ID;
+        boolean isLastPage = false;
+        while (!isLastPage) {
+            UUID pageAfterPollId = afterPollId;
+            List<PollVotingItemIdView> pageVotingItemIds = readOnlyTransactionTemplate.execute(status ->
+                    pollRepository.findPollAndVotingItemIdsByGroupIdAfter(groupId, pageAfterPollId, DELETE_CHUNK_SIZE));
+            List<UUID> pollIds = pageVotingItemIds.stream().map(PollVotingItemIdView::getPollId).distinct().toList();
+            if (pollIds.isEmpty()) {
+                break;
+            }
+            List<Integer> votingItemIds = pageVotingItemIds.stream()
+                    .map(PollVotingItemIdView::getVotingItemId)
+                    .filter(Objects::nonNull)
+                    .toList();
 
-        sendDeleteRequestToVoteService(groupPolls);
-        pollRepository.deleteByPollIdIn(pollIds);
-        return new DeleteGroupPollsResponse(pollIds);
+            // The vote service is called between the transactions, so no database connection is held while waiting for it
+            sendDeleteRequestToVoteService(votingItemIds);
+            transactionTemplate.executeWithoutResult(status -> {
+                pollRepository.deleteVotingItemsByPollIdIn(pollIds);
+                pollRepository.deletePollsByPollIdIn(pollIds);
+                pollViewCache.invalidate(pollIds);
+            });
+
+            deletedPollIds.addAll(pollIds);
+            nofDeletedPolls += pollIds.size();
+            // The page is ordered by poll ID, so the next page starts after its last poll
+            afterPollId = pollIds.get(pollIds.size() - 1);
+            isLastPage = (pollIds.size() < DELETE_CHUNK_SIZE);
+        }
+        return nofDeletedPolls;
     }
 
     /**
      * 'DeleteGroupPolls' helper, sending delete request to the vote service.
-     * @param groupPolls List of the group's poll ids.
+     * @param votingItemIds List of the group's voting item ids.
      */
-    private void sendDeleteRequestToVoteService(List<Poll> groupPolls) {
-        List<Integer> allPollsVotingItemIds = groupPolls.stream()
-                .flatMap(poll -> poll.getVotingItems().stream())
-                .map(VotingItem::getVotingItemId)
-                .collect(Collectors.toList());
-
-        ResponseEntity<DeleteMultipleVotesResponse> response = voteClient.deleteMultipleVotes(new DeleteMultipleVotesRequest(allPollsVotingItemIds));
+    private void sendDeleteRequestToVoteService(List<Integer> votingItemIds) {
+        ResponseEntity<DeleteMultipleVotesResponse> response = voteClient.deleteMultipleVotes(new DeleteMultipleVotesRequest(votingItemIds));
 
         if (!response.getStatusCode().is2xxSuccessful()) {
             //TODO throw error.
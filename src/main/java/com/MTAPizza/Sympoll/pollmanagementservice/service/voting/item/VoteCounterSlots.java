@@ -0,0 +1,123 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.service.voting.item;
+
+import com.MTAPizza.Sympoll.pollmanagementservice.model.voting.item.VotingItem;
+import com.MTAPizza.Sympoll.pollmanagementservice.repository.voting.item.VotingItemRepository;
+import com.MTAPizza.Sympoll.pollmanagementservice.repository.voting.item.VotingItemSlotCountView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Optional sharded counters for hot voting items.
+ * Added votes of a voting item are spread over K counter slots (see 'voting_item_counter_slots'), so concurrent votes
+ * do not all wait for the lock of the same row. Removed votes always go to the voting item's own row, where the check
+ * that the total count does not become negative is done.
+ * K adapts per voting item: it starts at 1 (the voting item's own row only), doubles while most of the observed
+ * vote updates are slower than the contention threshold, and halves when they are not, up to the configured maximum.
+ * The slots are only read in this mode: otherwise a voting item's own row holds all its votes, and the slots table
+ * is not needed (see 'docker/migrations/002_voting_item_counter_slots.sql').
+ * As removed votes are taken from the voting item's own row, its row alone can be negative while the mode is enabled.
+ * Disabling the mode therefore requires folding the slots into their voting items first
+ * (see 'docker/migrations/004_fold_voting_item_counter_slots.sql').
+ */
+@Slf4j
+@Component
+public class VoteCounterSlots {
+    private static final int SAMPLES_PER_WINDOW = 32;
+    private static final double SCALE_UP_RATIO = 0.5;
+    private static final double SCALE_DOWN_RATIO = 0.1;
+
+    private final VotingItemRepository votingItemRepository;
+    private final boolean enabled;
+    private final int maxSlots;
+    private final long contentionThresholdNanos;
+    private final Map<Integer, Contention> votingItemContention = new ConcurrentHashMap<>();
+
+    public VoteCounterSlots(VotingItemRepository votingItemRepository,
+                            @Value("${vote.counter-slots.enabled:false}") boolean enabled,
+                            @Value("${vote.counter-slots.max-slots:16}") int maxSlots,
+                            @Value("${vote.counter-slots.contention-threshold-ms:5}") long contentionThresholdMs) {
+        this.votingItemRepository = votingItemRepository;
+        this.enabled = enabled;
+        this.maxSlots = Math.max(1, maxSlots);
+        this.contentionThresholdNanos = TimeUnit.MILLISECONDS.toNanos(contentionThresholdMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Loads the votes counted in the counter slots of the given voting items, so their total vote count includes them.
+     * Does nothing when counter slots are disabled.
+     */
+    public void loadSlotVoteCounts(Collection<VotingItem> votingItems) {
+        if (!enabled || votingItems.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Integer> slotVoteCounts = votingItemRepository.findSlotVoteCounts(
+                        votingItems.stream().map(VotingItem::getVotingItemId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(VotingItemSlotCountView::getVotingItemId, VotingItemSlotCountView::getSlotVoteCount));
+        votingItems.forEach(votingItem -> votingItem.setSlotVoteCount(slotVoteCounts.getOrDefault(votingItem.getVotingItemId(), 0)));
+    }
+
+    /**
+     * Picks the counter slot for an added vote.
+     * @return A random slot out of the voting item's current K slots, where 0 is the voting item's own row.
+     */
+    public int pickSlot(int votingItemId) {
+        Contention contention = votingItemContention.get(votingItemId);
+        int slots = (contention != null) ? contention.slots : 1;
+        return (slots == 1) ? 0 : ThreadLocalRandom.current().nextInt(slots);
+    }
+
+    /**
+     * Records how long a vote update of a voting item took, and adapts the voting item's number of slots.
+     */
+    public void recordUpdateLatency(int votingItemId, long latencyNanos) {
+        Contention contention = votingItemContention.computeIfAbsent(votingItemId, id -> new Contention());
+        synchronized (contention) {
+            contention.samples++;
+            if (latencyNanos > contentionThresholdNanos) {
+                contention.contendedSamples++;
+            }
+            if (contention.samples < SAMPLES_PER_WINDOW) {
+                return;
+            }
+
+            double contendedRatio = (double) contention.contendedSamples / contention.samples;
+            int slots = contention.slots;
+            if (contendedRatio >= SCALE_UP_RATIO && slots < maxSlots) {
+                contention.slots = Math.min(slots * 2, maxSlots);
+            } else if (contendedRatio <= SCALE_DOWN_RATIO && slots > 1) {
+                contention.slots = slots / 2;
+            }
+            if (contention.slots != slots) {
+                log.info("Voting item {} now uses {} counter slots", votingItemId, contention.slots);
+            }
+            contention.samples = 0;
+            contention.contendedSamples = 0;
+            if (contention.slots == 1 && contendedRatio <= SCALE_DOWN_RATIO) {
+                // Voting items which are not contended are not tracked, until they are voted again
+                votingItemContention.remove(votingItemId, contention);
+            }
+        }
+    }
+
+    /**
+     * Observed contention of a single voting item, over the current window of samples.
+     */
+    private static class Contention {
+        private volatile int slots = 1;
+        private int samples;
+        private int contendedSamples;
+    }
+}
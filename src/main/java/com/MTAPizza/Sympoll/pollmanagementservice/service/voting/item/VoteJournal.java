@@ -0,0 +1,324 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.service.voting.item;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only local log of the votes buffered by the {@link VoteWriteBehindBuffer}.
+ * Every vote is appended before it is acknowledged, so votes that were not flushed to the database
+ * before a crash are replayed on the next startup.
+ * The log is split into segments: a segment is closed on every flush, and deleted once its votes are in the database.
+ * Segment IDs are unique across runs, so the database can record which segments were applied, and a segment whose
+ * votes were written just before a crash (but which was not deleted yet) is not replayed twice.
+ * When fsync is enabled, appended votes are forced to disk with a group commit: a committer thread forces the segment
+ * once per commit interval (or once the max number of records is appended), and completes the futures of all the votes
+ * appended since the previous force. So the votes of concurrent requests share a single fsync.
+ * The journal's directory is forced as well when a segment is created or deleted, so a segment whose votes were
+ * acknowledged does not lose its directory entry on a power loss, and a deleted segment does not reappear.
+ */
+@Slf4j
+class VoteJournal {
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int RECORD_SIZE = Integer.BYTES * 2; // voting item ID + delta
+
+    private final Path directory;
+    private final boolean fsync;
+    private final long groupCommitIntervalNanos;
+    private final int groupCommitMaxRecords;
+    // Segments of different runs are told apart by the run's ID, as their numbers restart on every run
+    private final String runId = UUID.randomUUID().toString();
+    private FileChannel currentSegment;
+    private Path currentSegmentPath;
+    private long nextSegmentNumber;
+    /* Futures of the votes appended to the current segment since its last force, guarded by the journal's monitor */
+    private List<CompletableFuture<Void>> unforcedRecords = new ArrayList<>();
+    /* Held while forcing the segment, so a rotation does not close the segment during the committer's force */
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private Thread committer;
+    private boolean closed;
+
+    VoteJournal(Path directory, boolean fsync, long groupCommitIntervalMs, int groupCommitMaxRecords) {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.groupCommitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(groupCommitIntervalMs);
+        this.groupCommitMaxRecords = Math.max(1, groupCommitMaxRecords);
+    }
+
+    /**
+     * Starts the group commit's committer thread, when fsync is enabled.
+     */
+    void start() {
+        if (fsync) {
+            committer = new Thread(this::commitLoop, "vote-journal-commit");
+            committer.setDaemon(true);
+            committer.start();
+        }
+    }
+
+    /**
+     * Finds the segments left by a previous run.
+     * @return The segments found.
+     */
+    List<Path> recover() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                return files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted()
+                        .toList();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover the vote journal from " + directory, e);
+        }
+    }
+
+    /**
+     * Reads the votes of the given segments.
+     * @return The sum of the segments' deltas per voting item ID.
+     */
+    Map<Integer, Long> read(List<Path> segments) {
+        Map<Integer, Long> votingItemDeltas = new HashMap<>();
+        for (Path segment : segments) {
+            try {
+                ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(segment));
+                // A partially written record at the end of a segment was never acknowledged, so it is ignored
+                while (records.remaining() >= RECORD_SIZE) {
+                    votingItemDeltas.merge(records.getInt(), (long) records.getInt(), Long::sum);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read vote journal segment " + segment, e);
+            }
+        }
+        return votingItemDeltas;
+    }
+
+    /**
+     * @return The ID of a segment, unique across runs.
+     */
+    static String segmentId(Path segment) {
+        String fileName = segment.getFileName().toString();
+        return fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length());
+    }
+
+    /**
+     * Appends a single vote to the current segment. The vote is written right away, but only forced by the next group commit.
+     * Callers must not append concurrently with {@link #rotate()}.
+     * @return A future completed once the vote is durable (right away when fsync is disabled),
+     *         or completed exceptionally if it could not be forced.
+     */
+    synchronized CompletableFuture<Void> append(int votingItemId, int delta) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).putInt(votingItemId).putInt(delta).flip();
+        try {
+            while (record.hasRemaining()) {
+                currentSegment.write(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append a vote to the vote journal", e);
+        }
+        if (!fsync) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        unforcedRecords.add(durable);
+        if (unforcedRecords.size() == 1 || unforcedRecords.size() >= groupCommitMaxRecords) {
+            notifyAll();
+        }
+        return durable;
+    }
+
+    /**
+     * The committer thread: waits for appended votes, gives concurrent votes the commit interval to join them
+     * (or until the max number of records is reached), and forces them all at once.
+     */
+    private void commitLoop() {
+        while (true) {
+            synchronized (this) {
+                try {
+                    while (!closed && unforcedRecords.isEmpty()) {
+                        wait();
+                    }
+                    long deadline = System.nanoTime() + groupCommitIntervalNanos;
+                    long remainingNanos;
+                    while (!closed && unforcedRecords.size() < groupCommitMaxRecords
+                            && (remainingNanos = deadline - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (closed) {
+                    return;
+                }
+            }
+            commit();
+        }
+    }
+
+    /**
+     * Forces the current segment, and completes the futures of the votes appended to it before the force.
+     * Votes appended during the force wait for the next commit.
+     */
+    private void commit() {
+        forceLock.lock();
+        try {
+            List<CompletableFuture<Void>> committedRecords;
+            FileChannel segment;
+            synchronized (this) {
+                // A rotation may have forced the votes in the meantime
+                if (unforcedRecords.isEmpty()) {
+                    return;
+                }
+                committedRecords = unforcedRecords;
+                unforcedRecords = new ArrayList<>();
+                segment = currentSegment;
+            }
+
+            try {
+                segment.force(false);
+                committedRecords.forEach(durable -> durable.complete(null));
+            } catch (IOException e) {
+                log.error("Failed to force {} votes to the vote journal", committedRecords.size(), e);
+                committedRecords.forEach(durable -> durable.completeExceptionally(
+                        new UncheckedIOException("Failed to force a vote to the vote journal", e)));
+            }
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Closes the current segment, and opens a new one for the following votes.
+     * The closed segment is forced first, which completes the futures of its votes.
+     * @return The path of the closed segment, or null if there was no open segment.
+     */
+    Path rotate() {
+        forceLock.lock();
+        try {
+            synchronized (this) {
+                Path closedSegmentPath = currentSegmentPath;
+                if (currentSegment != null) {
+                    forceAndClose();
+                }
+                currentSegmentPath = directory.resolve(String.format("votes-%s-%019d%s", runId, nextSegmentNumber++, SEGMENT_SUFFIX));
+                currentSegment = FileChannel.open(currentSegmentPath,
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                // Forcing the segment's votes does not persist its directory entry
+                forceDirectory();
+                return closedSegmentPath;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rotate the vote journal", e);
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes closed segments, after their votes were written to the database.
+     * The deletes are forced before returning, as the segments' applied records are deleted next, and a segment
+     * that reappeared after a power loss without its applied record would be replayed twice.
+     * @return The segments that were deleted, empty if the deletes could not be forced.
+     */
+    List<Path> delete(List<Path> segments) {
+        List<Path> deletedSegments = new ArrayList<>();
+        for (Path segment : segments) {
+            try {
+                Files.deleteIfExists(segment);
+                deletedSegments.add(segment);
+            } catch (IOException e) {
+                log.error("Failed to delete vote journal segment {}", segment, e);
+            }
+        }
+        if (deletedSegments.isEmpty()) {
+            return deletedSegments;
+        }
+
+        try {
+            forceDirectory();
+        } catch (IOException e) {
+            // The applied records are kept, so the segments are skipped if they reappear
+            log.error("Failed to force the deletion of {} vote journal segments", deletedSegments.size(), e);
+            return List.of();
+        }
+        return deletedSegments;
+    }
+
+    /**
+     * Forces the journal's directory, so its created and deleted segments survive an OS crash or power loss.
+     * Does nothing when fsync is disabled.
+     */
+    private void forceDirectory() throws IOException {
+        if (!fsync) {
+            return;
+        }
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        }
+    }
+
+    /**
+     * Stops the committer thread, and forces and closes the current segment.
+     */
+    void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        if (committer != null) {
+            try {
+                committer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        forceLock.lock();
+        try {
+            synchronized (this) {
+                if (currentSegment != null) {
+                    forceAndClose();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to close the vote journal", e);
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Forces the current segment and closes it. The futures of its unforced votes are completed after the force,
+     * or completed exceptionally if it failed.
+     */
+    private void forceAndClose() throws IOException {
+        List<CompletableFuture<Void>> committedRecords = unforcedRecords;
+        unforcedRecords = new ArrayList<>();
+        try {
+            currentSegment.force(false);
+        } catch (IOException e) {
+            committedRecords.forEach(durable -> durable.completeExceptionally(
+                    new UncheckedIOException("Failed to force a vote to the vote journal", e)));
+            throw e;
+        }
+        committedRecords.forEach(durable -> durable.complete(null));
+        currentSegment.close();
+    }
+}
@@ -0,0 +1,402 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.service.voting.item;
+
+import com.MTAPizza.Sympoll.pollmanagementservice.cache.PollViewCache;
+import com.MTAPizza.Sympoll.pollmanagementservice.model.voting.item.VotingItem;
+import com.MTAPizza.Sympoll.pollmanagementservice.repository.voting.item.VotingItemCountView;
+import com.MTAPizza.Sympoll.pollmanagementservice.repository.voting.item.VotingItemRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional write-behind mode for votes.
+ * Instead of a transaction per vote, votes are summed in memory per voting item, and the deltas are periodically
+ * flushed to the database in a single batched update.
+ * Each voting item's delta is a {@link LongAdder}, so concurrent votes on a hot item do not contend on a single value.
+ * If the journal is enabled, every vote is also appended to a local log before it is acknowledged,
+ * and votes that were not flushed before a crash are replayed on startup. Each flush records the journal segments
+ * it applied in the same transaction as the votes, and segments recorded as applied are not replayed.
+ * Votes are only safe from an OS crash or power loss if the journal is fsynced, which is the default: a vote is then
+ * acknowledged once the journal's group commit forced it to disk, together with the other votes appended meanwhile
+ * (see {@link VoteJournal}). The vote waits for the group commit outside the buffer's lock.
+ * A vote is checked without a transaction: the voting item's description and persisted vote count are cached
+ * (and re-read from the database once per TTL), flushes add their applied deltas to the cached counts, and the check
+ * that the vote count does not become negative is done against the cached count plus the votes not in it yet,
+ * atomically with buffering the vote. The check is exact for the votes of this instance, except when the cached count
+ * is re-read while the voting item's votes are being flushed, and the flush then drops removed votes it can not apply.
+ */
+@Slf4j
+@Component
+public class VoteWriteBehindBuffer {
+    private static final int MAX_CACHED_VOTING_ITEMS = 10_000;
+    private static final int NOF_VOTING_ITEM_LOCKS = 64;
+
+    private final VotingItemRepository votingItemRepository;
+    private final VoteCounterSlots voteCounterSlots;
+    private final PollViewCache pollViewCache;
+    private final boolean enabled;
+    private final long flushIntervalMs;
+    private final VoteJournal journal;
+
+    private final Map<Integer, LongAdder> pendingDeltas = new ConcurrentHashMap<>();
+    /* Votes are appended to the journal and added to the pending deltas under the read lock,
+       so a flush (under the write lock) closes a segment that matches exactly the deltas it drained,
+       and can remove the idle voting items' adders without losing a concurrent vote. */
+    private final ReentrantReadWriteLock bufferLock = new ReentrantReadWriteLock();
+    /* Closed journal segments whose votes are not in the database yet */
+    private final List<Path> unflushedSegments = new ArrayList<>();
+    /* Deltas drained by the flush in progress, not in the database (or the cached counts) yet, written under the write lock */
+    private volatile Map<Integer, Long> flushingDeltas = Map.of();
+    /* Persisted vote counts, including the flushed votes of this instance */
+    private final Cache<Integer, PersistedVotingItem> persistedVotingItems;
+    /* A voting item's vote is checked and buffered under its lock, so concurrent removes can not pass the check together */
+    private final Object[] votingItemLocks = new Object[NOF_VOTING_ITEM_LOCKS];
+    private ScheduledExecutorService flushScheduler;
+
+    /**
+     * A voting item's description and vote count in the database.
+     */
+    private record PersistedVotingItem(String description, long voteCount) {
+    }
+
+    /**
+     * A voting item's description and vote count, including the votes in the buffer.
+     */
+    private record BufferedVotingItem(String description, long voteCount) implements VotingItemCountView {
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public int getVoteCount() {
+            return (int) voteCount;
+        }
+    }
+
+    public VoteWriteBehindBuffer(VotingItemRepository votingItemRepository,
+                                 VoteCounterSlots voteCounterSlots,
+                                 PollViewCache pollViewCache,
+                                 @Value("${vote.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${vote.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+                                 @Value("${vote.write-behind.vote-count-ttl-ms:1000}") long voteCountTtlMs,
+                                 @Value("${vote.write-behind.journal.enabled:true}") boolean journalEnabled,
+                                 @Value("${vote.write-behind.journal.directory:vote-journal}") String journalDirectory,
+                                 @Value("${vote.write-behind.journal.fsync:true}") boolean journalFsync,
+                                 @Value("${vote.write-behind.journal.group-commit-interval-ms:2}") long groupCommitIntervalMs,
+                                 @Value("${vote.write-behind.journal.group-commit-max-records:256}") int groupCommitMaxRecords) {
+        this.votingItemRepository = votingItemRepository;
+        this.voteCounterSlots = voteCounterSlots;
+        this.pollViewCache = pollViewCache;
+        this.enabled = enabled;
+        this.flushIntervalMs = flushIntervalMs;
+        // Expire a fixed time after the count was read, the flushes' updates do not extend it
+        this.persistedVotingItems = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_VOTING_ITEMS)
+                .expireAfter(Expiry.creating((Integer votingItemId, PersistedVotingItem votingItem) -> Duration.ofMillis(voteCountTtlMs)))
+                .build();
+        for (int i = 0; i < NOF_VOTING_ITEM_LOCKS; i++) {
+            votingItemLocks[i] = new Object();
+        }
+        this.journal = (enabled && journalEnabled)
+                ? new VoteJournal(Path.of(journalDirectory), journalFsync, groupCommitIntervalMs, groupCommitMaxRecords)
+                : null;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+
+        if (journal != null) {
+            replayJournal();
+            journal.start();
+        }
+
+        flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "vote-flush"));
+        flushScheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Vote write-behind buffer started, flushing every {} ms", flushIntervalMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (!enabled) {
+            return;
+        }
+
+        flushScheduler.shutdown();
+        try {
+            flushScheduler.awaitTermination(flushIntervalMs * 10, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Buffers a vote, to be written to the database in the next flush, unless it would make the vote count negative.
+     * With the journal, returns once the vote is durable in it. A vote whose journal record could not be forced
+     * fails, but stays buffered, as its record may still be on disk and replayed.
+     * @param votingItemId ID of the voted voting item.
+     * @param delta Number of votes to add, negative to remove votes.
+     * @return The voting item's description and vote count including the vote,
+     *         or empty if the voting item does not exist or its vote count would become negative.
+     */
+    public Optional<VotingItemCountView> add(int votingItemId, int delta) {
+        return addAll(Map.of(votingItemId, delta)).get(votingItemId);
+    }
+
+    /**
+     * Buffers the votes of several voting items, each checked like a single vote in {@link #add(int, int)},
+     * and returns once all of them are durable in the journal.
+     * @param votingItemDeltas Map of voting item IDs to the number of votes to add (negative to remove votes).
+     * @return Map of each given voting item ID to its description and vote count including the votes,
+     *         or to empty if the voting item does not exist or its vote count would become negative.
+     */
+    public Map<Integer, Optional<VotingItemCountView>> addAll(Map<Integer, Integer> votingItemDeltas) {
+        Map<Integer, Optional<VotingItemCountView>> bufferedVotingItems = new HashMap<>();
+        List<CompletableFuture<Void>> journaledVotes = new ArrayList<>();
+        votingItemDeltas.forEach((votingItemId, delta) ->
+                bufferedVotingItems.put(votingItemId, bufferVotes(votingItemId, delta, journaledVotes)));
+
+        journaledVotes.forEach(VoteWriteBehindBuffer::awaitJournaled);
+        return bufferedVotingItems;
+    }
+
+    /**
+     * Checks and buffers the votes of a single voting item, adding the future of their journal record to the given list.
+     */
+    private Optional<VotingItemCountView> bufferVotes(int votingItemId, int delta, List<CompletableFuture<Void>> journaledVotes) {
+        Optional<PersistedVotingItem> loadedVotingItem = getPersistedVotingItem(votingItemId);
+        if (loadedVotingItem.isEmpty()) {
+            return Optional.empty();
+        }
+
+        bufferLock.readLock().lock();
+        try {
+            synchronized (votingItemLocks[Math.floorMod(votingItemId, NOF_VOTING_ITEM_LOCKS)]) {
+                // A flush may have updated the cached count since it was loaded
+                PersistedVotingItem persistedVotingItem = Objects.requireNonNullElse(
+                        persistedVotingItems.getIfPresent(votingItemId), loadedVotingItem.get());
+                long voteCount = persistedVotingItem.voteCount() + getPendingDelta(votingItemId) + delta;
+                if (voteCount < 0) {
+                    return Optional.empty();
+                }
+
+                if (delta != 0) {
+                    if (journal != null) {
+                        journaledVotes.add(journal.append(votingItemId, delta));
+                    }
+                    pendingDeltas.computeIfAbsent(votingItemId, id -> new LongAdder()).add(delta);
+                }
+                return Optional.of(new BufferedVotingItem(persistedVotingItem.description(), voteCount));
+            }
+        } finally {
+            bufferLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The voting item's cached description and persisted vote count, read from the database if it is not cached,
+     *         or empty if the voting item does not exist.
+     */
+    private Optional<PersistedVotingItem> getPersistedVotingItem(int votingItemId) {
+        PersistedVotingItem persistedVotingItem = persistedVotingItems.get(votingItemId, id -> {
+            Optional<VotingItem> votingItem = votingItemRepository.findById(id);
+            votingItem.ifPresent(item -> voteCounterSlots.loadSlotVoteCounts(List.of(item)));
+            return votingItem
+                    .map(item -> new PersistedVotingItem(item.getDescription(), item.getTotalVoteCount()))
+                    .orElse(null);
+        });
+        return Optional.ofNullable(persistedVotingItem);
+    }
+
+    private static void awaitJournaled(CompletableFuture<Void> journaled) {
+        try {
+            journaled.join();
+        } catch (CompletionException e) {
+            throw (e.getCause() instanceof RuntimeException cause) ? cause : e;
+        }
+    }
+
+    /**
+     * @return The sum of the buffered votes of a voting item, which are not in the database yet
+     *         (including the votes of a flush in progress).
+     */
+    public long getPendingDelta(int votingItemId) {
+        LongAdder pendingDelta = pendingDeltas.get(votingItemId);
+        return ((pendingDelta != null) ? pendingDelta.sum() : 0) + flushingDeltas.getOrDefault(votingItemId, 0L);
+    }
+
+    /**
+     * Writes all buffered votes to the database in a single batched update.
+     * If the update fails, the votes are kept in the buffer and retried in the next flush.
+     */
+    synchronized void flush() {
+        Map<Integer, Long> drainedDeltas;
+        bufferLock.writeLock().lock();
+        try {
+            if (journal != null) {
+                Path closedSegment = journal.rotate();
+                if (closedSegment != null) {
+                    unflushedSegments.add(closedSegment);
+                }
+            }
+            drainedDeltas = drainPendingDeltas();
+            flushingDeltas = drainedDeltas;
+        } finally {
+            bufferLock.writeLock().unlock();
+        }
+
+        if (drainedDeltas.isEmpty()) {
+            // The segments hold no votes, or votes that cancel out, so there is nothing to record as applied
+            deleteSegments(unflushedSegments, false);
+            unflushedSegments.clear();
+            return;
+        }
+
+        Map<Integer, Long> droppedRemoves;
+        try {
+            droppedRemoves = votingItemRepository.addToVoteCounts(drainedDeltas, segmentIds(unflushedSegments));
+        } catch (Exception e) {
+            log.error("Failed to flush buffered votes of {} voting items, retrying in the next flush", drainedDeltas.size(), e);
+            bufferLock.writeLock().lock();
+            try {
+                drainedDeltas.forEach((votingItemId, delta) ->
+                        pendingDeltas.computeIfAbsent(votingItemId, id -> new LongAdder()).add(delta));
+                flushingDeltas = Map.of();
+            } finally {
+                bufferLock.writeLock().unlock();
+            }
+            return;
+        }
+
+        // The flushed votes move from the flushing deltas to the cached counts, at once for the votes' checks
+        bufferLock.writeLock().lock();
+        try {
+            drainedDeltas.forEach((votingItemId, delta) -> persistedVotingItems.asMap().computeIfPresent(votingItemId,
+                    (id, votingItem) -> new PersistedVotingItem(votingItem.description(),
+                            votingItem.voteCount() + delta + droppedRemoves.getOrDefault(id, 0L))));
+            flushingDeltas = Map.of();
+        } finally {
+            bufferLock.writeLock().unlock();
+        }
+        logDroppedRemoves(droppedRemoves);
+        pollViewCache.invalidateVotingItems(drainedDeltas.keySet());
+        log.debug("Flushed buffered votes of {} voting items", drainedDeltas.size());
+        deleteSegments(unflushedSegments, true);
+        unflushedSegments.clear();
+    }
+
+    /**
+     * Resets every voting item's pending delta, and returns the non-zero ones.
+     * Voting items without votes since the previous flush are removed, so the buffer only holds recently voted items.
+     * Must be called under the write lock.
+     */
+    private Map<Integer, Long> drainPendingDeltas() {
+        Map<Integer, Long> drainedDeltas = new HashMap<>();
+        pendingDeltas.entrySet().removeIf(entry -> {
+            long delta = entry.getValue().sumThenReset();
+            if (delta != 0) {
+                drainedDeltas.put(entry.getKey(), delta);
+            }
+            return delta == 0;
+        });
+        return drainedDeltas;
+    }
+
+    /**
+     * Deletes the journal segments whose votes are in the database, and then their applied records.
+     * A segment that could not be deleted keeps its record, so it is skipped when it is replayed.
+     */
+    private void deleteSegments(List<Path> segments, boolean recordedAsApplied) {
+        if (journal == null || segments.isEmpty()) {
+            return;
+        }
+
+        List<Path> deletedSegments = journal.delete(segments);
+        if (recordedAsApplied) {
+            try {
+                votingItemRepository.deleteAppliedJournalSegments(segmentIds(deletedSegments));
+            } catch (Exception e) {
+                // A leftover record is harmless, segment IDs are never reused
+                log.error("Failed to delete the applied records of {} vote journal segments", deletedSegments.size(), e);
+            }
+        }
+    }
+
+    private static List<String> segmentIds(List<Path> segments) {
+        return segments.stream().map(VoteJournal::segmentId).toList();
+    }
+
+    /**
+     * Removed votes that passed the best-effort check but would have made a vote count negative are dropped
+     * by the flush, they are logged so they can be reconciled.
+     */
+    private static void logDroppedRemoves(Map<Integer, Long> droppedRemoves) {
+        droppedRemoves.forEach((votingItemId, droppedVotes) ->
+                log.warn("Dropped {} removed votes of voting item {}, its vote count would have become negative", droppedVotes, votingItemId));
+    }
+
+    /**
+     * Writes the votes left in the journal by a previous run to the database, before new votes are accepted.
+     * Segments that were recorded as applied (their flush committed, but they were not deleted before the crash)
+     * are deleted without being replayed.
+     */
+    private void replayJournal() {
+        List<Path> segments = journal.recover();
+        Set<String> appliedSegmentIds;
+        try {
+            appliedSegmentIds = votingItemRepository.findAppliedJournalSegments(segmentIds(segments));
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("The vote journal requires the applied_vote_journal_segments table, "
+                    + "create it with docker/migrations/001_applied_vote_journal_segments.sql", e);
+        }
+
+        List<Path> unappliedSegments = segments.stream()
+                .filter(segment -> !appliedSegmentIds.contains(VoteJournal.segmentId(segment)))
+                .toList();
+        Map<Integer, Long> votingItemDeltas = journal.read(unappliedSegments);
+        if (!votingItemDeltas.isEmpty()) {
+            log.info("Replaying buffered votes of {} voting items from the vote journal", votingItemDeltas.size());
+            logDroppedRemoves(votingItemRepository.addToVoteCounts(votingItemDeltas, segmentIds(unappliedSegments)));
+        }
+        if (segments.size() > unappliedSegments.size()) {
+            log.info("Skipped {} vote journal segments that were already applied", segments.size() - unappliedSegments.size());
+        }
+        deleteSegments(segments, true);
+        journal.rotate();
+    }
+}
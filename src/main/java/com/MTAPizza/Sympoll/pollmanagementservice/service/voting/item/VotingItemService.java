@@ -1,31 +1,47 @@
 package com.MTAPizza.Sympoll.pollmanagementservice.service.voting.item;
 
+import com.MTAPizza.Sympoll.pollmanagementservice.cache.PollViewCache;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.VoteRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.VoteResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.action.VoteAction;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.batch.VoteBatchItemResult;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.batch.VoteBatchResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.count.VoteCountRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.count.VoteCountResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.exception.not.found.ResourceNotFoundException;
 import com.MTAPizza.Sympoll.pollmanagementservice.model.voting.item.VotingItem;
+import com.MTAPizza.Sympoll.pollmanagementservice.repository.voting.item.VotingItemCountView;
 import com.MTAPizza.Sympoll.pollmanagementservice.repository.voting.item.VotingItemRepository;
 import com.MTAPizza.Sympoll.pollmanagementservice.validator.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class VotingItemService {
     private final VotingItemRepository votingItemRepository;
+    private final TransactionTemplate transactionTemplate;
     private final Validator validator;
+    private final VoteWriteBehindBuffer voteWriteBehindBuffer;
+    private final VoteCounterSlots voteCounterSlots;
+    private final PollViewCache pollViewCache;
 
     /**
      * Update a specific vote (add or remove voting) in the database.
+     * In write-behind mode the vote is buffered instead, without a transaction.
      * @param voteRequest Information of the vote to be updated and the requested action.
      * @return The voting item count and description.
      */
-    @Transactional
     public VoteResponse updateVotingItem(VoteRequest voteRequest) {
         validator.validateVoteRequest(voteRequest);
         int action;
@@ -36,11 +52,119 @@ public class VotingItemService {
             action = -1;
         }
 
-        VotingItem votingItem = votingItemRepository.getReferenceById(voteRequest.votingItemId());
-        votingItem.setVoteCount(votingItem.getVoteCount() + action);
-        votingItemRepository.save(votingItem);
+        if (voteWriteBehindBuffer.isEnabled()) {
+            return bufferVote(voteRequest.votingItemId(), action);
+        }
+
+        // A single conditional UPDATE, so concurrent votes on the same item are never lost
+        VotingItemCountView updatedVotingItem = transactionTemplate.execute(status -> {
+            Optional<VotingItemCountView> votingItem = voteCounterSlots.isEnabled()
+                    ? addToVoteCountSlot(voteRequest.votingItemId(), action)
+                    : votingItemRepository.addToVoteCount(voteRequest.votingItemId(), action);
+            votingItem.ifPresent(updated -> pollViewCache.invalidateVotingItems(List.of(voteRequest.votingItemId())));
+            return votingItem;
+        }).orElseThrow(() -> validator.rejectedVote(voteRequest.votingItemId()));
         log.info("Voting item {} updated", voteRequest.votingItemId());
 
+        return new VoteResponse(updatedVotingItem.getDescription(), updatedVotingItem.getVoteCount());
+    }
+
+    /**
+     * Apply a batch of votes in a single transaction.
+     * The votes are collapsed into a net delta per voting item, and the deltas are applied with JDBC batching.
+     * In write-behind mode the deltas are buffered instead, checked like single votes against the buffered votes.
+     * @param voteRequests The votes to apply.
+     * @return The result of each voting item in the batch, with an error for unknown voting items and counts that would become negative.
+     */
+    public VoteBatchResponse updateVotingItems(List<VoteRequest> voteRequests) {
+        validator.validateVoteBatchRequest(voteRequests);
+
+        Map<Integer, Integer> votingItemDeltas = new TreeMap<>();
+        for (VoteRequest voteRequest : voteRequests) {
+            int action = VoteAction.ADD.name().equalsIgnoreCase(voteRequest.action()) ? 1 : -1;
+            votingItemDeltas.merge(voteRequest.votingItemId(), action, Integer::sum);
+        }
+
+        if (voteWriteBehindBuffer.isEnabled()) {
+            return bufferVotes(voteRequests.size(), votingItemDeltas);
+        }
+
+        return transactionTemplate.execute(status -> {
+            Set<Integer> updatedVotingItemIds = votingItemRepository.addToVoteCountsIfNotNegative(votingItemDeltas);
+            pollViewCache.invalidateVotingItems(updatedVotingItemIds);
+            List<VotingItem> foundVotingItems = votingItemRepository.findAllById(votingItemDeltas.keySet());
+            voteCounterSlots.loadSlotVoteCounts(foundVotingItems);
+            Map<Integer, VotingItem> votingItems = foundVotingItems.stream()
+                    .collect(Collectors.toMap(VotingItem::getVotingItemId, votingItem -> votingItem));
+            log.info("Batch of {} votes applied to {} voting items", voteRequests.size(), updatedVotingItemIds.size());
+
+            List<VoteBatchItemResult> results = votingItemDeltas.entrySet().stream()
+                    .map(entry -> toVoteBatchItemResult(entry.getKey(), entry.getValue(), votingItems.get(entry.getKey()), updatedVotingItemIds))
+                    .toList();
+            return new VoteBatchResponse(results);
+        });
+    }
+
+    /**
+     * Write-behind mode of 'updateVotingItems': the deltas go through the buffer, so a batch's removes are checked
+     * against the buffered votes like single votes, instead of being dropped by the flush.
+     * Only the rejected voting items are read, to tell unknown voting items from counts that would become negative.
+     */
+    private VoteBatchResponse bufferVotes(int nofVotes, Map<Integer, Integer> votingItemDeltas) {
+        Map<Integer, Optional<VotingItemCountView>> bufferedVotingItems = voteWriteBehindBuffer.addAll(votingItemDeltas);
+        List<Integer> rejectedVotingItemIds = bufferedVotingItems.entrySet().stream()
+                .filter(entry -> entry.getValue().isEmpty())
+                .map(Map.Entry::getKey)
+                .toList();
+        Map<Integer, VotingItem> rejectedVotingItems = rejectedVotingItemIds.isEmpty()
+                ? Map.of()
+                : votingItemRepository.findAllById(rejectedVotingItemIds).stream()
+                        .collect(Collectors.toMap(VotingItem::getVotingItemId, votingItem -> votingItem));
+        log.info("Batch of {} votes buffered for {} voting items", nofVotes, votingItemDeltas.size() - rejectedVotingItemIds.size());
+
+        List<VoteBatchItemResult> results = votingItemDeltas.entrySet().stream()
+                .map(entry -> bufferedVotingItems.get(entry.getKey())
+                        .map(votingItem -> new VoteBatchItemResult(entry.getKey(), entry.getValue(),
+                                votingItem.getDescription(), votingItem.getVoteCount(), null))
+                        .orElseGet(() -> toVoteBatchItemResult(entry.getKey(), entry.getValue(),
+                                rejectedVotingItems.get(entry.getKey()), Set.of())))
+                .toList();
+        return new VoteBatchResponse(results);
+    }
+
+    private VoteBatchItemResult toVoteBatchItemResult(int votingItemId, int delta, VotingItem votingItem, Set<Integer> updatedVotingItemIds) {
+        if (votingItem == null) {
+            return new VoteBatchItemResult(votingItemId, delta, null, null, "Vote with id " + votingItemId + " does not exist");
+        }
+        if (delta != 0 && !updatedVotingItemIds.contains(votingItemId)) {
+            return new VoteBatchItemResult(votingItemId, delta, votingItem.getDescription(), null, "Can not remove vote from voting item with 0 vote count");
+        }
+        return new VoteBatchItemResult(votingItemId, delta, votingItem.getDescription(), votingItem.getTotalVoteCount(), null);
+    }
+
+    /**
+     * Sharded counters mode: added votes go to one of the voting item's counter slots, removed votes to its own row.
+     * The update latency is recorded, so the number of slots of the voting item follows its contention.
+     */
+    private Optional<VotingItemCountView> addToVoteCountSlot(int votingItemId, int action) {
+        int slot = (action > 0) ? voteCounterSlots.pickSlot(votingItemId) : 0;
+        long startTime = System.nanoTime();
+        Optional<VotingItemCountView> updatedVotingItem = (slot == 0)
+                ? votingItemRepository.addToVoteCountWithSlots(votingItemId, action)
+                : votingItemRepository.addToVoteCountSlot(votingItemId, slot, action);
+        voteCounterSlots.recordUpdateLatency(votingItemId, System.nanoTime() - startTime);
+        return updatedVotingItem;
+    }
+
+    /**
+     * Write-behind mode: add the vote to the buffer, to be written to the database in the next flush.
+     * The buffer checks the vote against its cached vote count, so only a rejected vote reads the database.
+     */
+    private VoteResponse bufferVote(int votingItemId, int action) {
+        VotingItemCountView votingItem = voteWriteBehindBuffer.add(votingItemId, action)
+                .orElseThrow(() -> validator.rejectedVote(votingItemId));
+        log.info("Vote for voting item {} buffered", votingItemId);
+
         return new VoteResponse(votingItem.getDescription(), votingItem.getVoteCount());
     }
 
@@ -52,7 +176,11 @@ public class VotingItemService {
     public VoteCountResponse getVoteCount(VoteCountRequest voteCountRequest) {
         validator.validateVoteCountRequest(voteCountRequest);
 
-        VotingItem votingItem = votingItemRepository.getReferenceById(voteCountRequest.votingItemId());
-        return new VoteCountResponse(votingItem.getVoteCount());
+        VotingItem votingItem = votingItemRepository.findById(voteCountRequest.votingItemId())
+                .orElseThrow(() -> new ResourceNotFoundException("Vote with id " + voteCountRequest.votingItemId() + " does not exist"));
+        voteCounterSlots.loadSlotVoteCounts(List.of(votingItem));
+        // Votes still in the write-behind buffer are counted as well
+        long pendingVotes = voteWriteBehindBuffer.getPendingDelta(voteCountRequest.votingItemId());
+        return new VoteCountResponse((int) (votingItem.getTotalVoteCount() + pendingVotes));
     }
 }
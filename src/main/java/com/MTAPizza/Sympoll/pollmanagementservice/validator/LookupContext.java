@@ -0,0 +1,35 @@
+package com.MTAPizza.Sympoll.pollmanagementservice.validator;
+
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.group.GroupResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.user.UserResponse;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Users' and groups' data fetched by the 'Validator' while validating a request,
+ * so it is reused when the request's response is built instead of being fetched again.
+ * A context is created per request, and is not thread-safe.
+ */
+public class LookupContext {
+    private final Map<UUID, UserResponse> users = new HashMap<>();
+    private final Map<String, GroupResponse> groups = new HashMap<>();
+
+    public Map<UUID, UserResponse> getUsers() {
+        return Collections.unmodifiableMap(users);
+    }
+
+    public Map<String, GroupResponse> getGroups() {
+        return Collections.unmodifiableMap(groups);
+    }
+
+    void addUser(UUID userId, UserResponse user) {
+        users.put(userId, user);
+    }
+
+    void addGroup(String groupId, GroupResponse group) {
+        groups.put(groupId, group);
+    }
+}
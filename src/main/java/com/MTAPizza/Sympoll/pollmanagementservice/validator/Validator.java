@@ -1,29 +1,40 @@
 package com.MTAPizza.Sympoll.pollmanagementservice.validator;
 
+import com.MTAPizza.Sympoll.pollmanagementservice.cache.GroupCache;
+import com.MTAPizza.Sympoll.pollmanagementservice.cache.UserCache;
 import com.MTAPizza.Sympoll.pollmanagementservice.client.GroupClient;
 import com.MTAPizza.Sympoll.pollmanagementservice.client.UserClient;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.group.GroupResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.create.PollCreateRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.delete.PollDeleteRequest;
-import com.MTAPizza.Sympoll.pollmanagementservice.dto.validator.group.GroupIdExistsResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.user.UserResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.validator.user.UserIdExistsResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.VoteRequest;
-import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.action.VoteAction;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.count.VoteCountRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.exception.access.denied.AccessDeniedException;
 import com.MTAPizza.Sympoll.pollmanagementservice.exception.not.found.ResourceNotFoundException;
 import com.MTAPizza.Sympoll.pollmanagementservice.exception.request.RequestFailedException;
 import com.MTAPizza.Sympoll.pollmanagementservice.repository.poll.PollRepository;
 import com.MTAPizza.Sympoll.pollmanagementservice.repository.voting.item.VotingItemRepository;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * This class handles the validation of data received from the client.
@@ -33,19 +44,83 @@ import java.util.UUID;
 @Component
 @RequiredArgsConstructor
 public class Validator {
+    private static final int MAX_PAGE_LIMIT = 100;
+    private static final int MAX_BULK_CREATE_SIZE = 1000;
+
     private final PollRepository pollRepository;
     private final VotingItemRepository votingItemRepository;
     private final UserClient userClient;
     private final GroupClient groupClient;
+    private final GroupCache groupCache;
+    private final UserCache userCache;
 
-    public void validateNewPoll(PollCreateRequest poll){
+    /**
+     * Validates a new poll. The group's and creator's data is fetched to check that they exist,
+     * and is added to the lookup context, to be reused in the created poll's response.
+     */
+    public void validateNewPoll(PollCreateRequest poll, LookupContext lookupContext){
         validateAllowedVotingItems(poll.votingItems().size(), poll);
         validateDeadline(LocalDateTime.now(), poll);
-        validateGroupIdExist(poll.groupId());
-        validateUserIdExist(poll.creatorId());
+        validateGroupIdExist(poll.groupId(), lookupContext);
+        validateUserIdExist(poll.creatorId(), lookupContext);
         validateVotingItemsStringList(poll);
     }
 
+    public void validateBulkCreateRequest(List<PollCreateRequest> polls) throws IllegalArgumentException {
+        if (polls == null || polls.isEmpty()) {
+            log.error("Client sent an empty batch of polls to create.");
+            throw new IllegalArgumentException("A batch of polls cannot be empty");
+        }
+        if (polls.size() > MAX_BULK_CREATE_SIZE) {
+            log.error("Client sent a batch of {} polls to create.", polls.size());
+            throw new IllegalArgumentException("A batch of polls cannot contain more than " + MAX_BULK_CREATE_SIZE + " polls");
+        }
+    }
+
+    /**
+     * Validates a batch of new polls. The data of the batch's distinct creators and groups is fetched once
+     * for the whole batch, and is added to the lookup context, to be reused in the created polls' responses.
+     * An invalid poll does not fail the batch.
+     * @return The reason each invalid poll is invalid, by its index in the batch.
+     */
+    public Map<Integer, String> validateNewPolls(List<PollCreateRequest> polls, LookupContext lookupContext) {
+        List<PollCreateRequest> givenPolls = polls.stream().filter(Objects::nonNull).toList();
+        Map<Object, String> lookupErrors = new HashMap<>();
+        validateUserIdsExist(givenPolls.stream().map(PollCreateRequest::creatorId).filter(Objects::nonNull).collect(Collectors.toSet()),
+                lookupContext, lookupErrors);
+        validateGroupIdsExist(givenPolls.stream().map(PollCreateRequest::groupId).filter(Objects::nonNull).collect(Collectors.toSet()),
+                lookupContext, lookupErrors);
+
+        Map<Integer, String> errors = new HashMap<>();
+        for (int index = 0; index < polls.size(); index++) {
+            PollCreateRequest poll = polls.get(index);
+            if (poll == null) {
+                log.error("Client sent an empty poll in a batch of polls to create.");
+                errors.put(index, "A poll cannot be empty");
+                continue;
+            }
+
+            try {
+                validateVotingItemsStringList(poll);
+                validateAllowedVotingItems(poll.votingItems().size(), poll);
+                validateDeadline(LocalDateTime.now(), poll);
+            } catch (IllegalArgumentException | DateTimeException e) {
+                errors.put(index, e.getMessage());
+                continue;
+            }
+
+            if (poll.groupId() == null || poll.creatorId() == null) {
+                log.error("Client tried to create a poll without a group or a creator.");
+                errors.put(index, "A poll must have a group and a creator");
+            } else if (lookupErrors.containsKey(poll.groupId())) {
+                errors.put(index, lookupErrors.get(poll.groupId()));
+            } else if (lookupErrors.containsKey(poll.creatorId())) {
+                errors.put(index, lookupErrors.get(poll.creatorId()));
+            }
+        }
+        return errors;
+    }
+
     public void validateGetPollByIdRequest(UUID pollId) {
         validatePollIdExist(pollId);
     }
@@ -55,8 +130,17 @@ public class Validator {
     }
 
     public void validateGetPollsByMultipleGroupIdsRequest(List<String> groupIds) {
-        for (String groupId : groupIds) {
-            validateGroupIdExist(groupId);
+        List<String> missingGroupIds = groupCache.findMissingGroupIds(groupIds);
+        if (!missingGroupIds.isEmpty()) {
+            log.error("Groups {} do not exist.", missingGroupIds);
+            throw new ResourceNotFoundException("Group " + missingGroupIds.get(0) + " does not exist");
+        }
+    }
+
+    public void validatePageLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+            log.error("Client requested a page of {} polls.", limit);
+            throw new IllegalArgumentException("Page limit must be between 1 and " + MAX_PAGE_LIMIT);
         }
     }
 
@@ -73,6 +157,11 @@ public class Validator {
     }
 
     private void validateDeadline(LocalDateTime timeCreated, PollCreateRequest poll){
+        if (poll.deadline() == null) {
+            log.error("User {} tried to create a poll without a deadline.", poll.creatorId());
+            throw new IllegalArgumentException("A poll must have a deadline");
+        }
+
         // Convert deadline string time stamp to LocalDateTime object
         Instant instant = Instant.parse(poll.deadline());
         LocalDateTime deadline = instant.atZone(ZoneId.systemDefault()).toLocalDateTime();
@@ -83,6 +172,43 @@ public class Validator {
         }
     }
 
+    /**
+     * A user returned by the user data fetch exists, only a user missing from it is checked with the user service.
+     */
+    private void validateUserIdExist(UUID userId, LookupContext lookupContext) {
+        if (userId == null) {
+            log.error("Client tried to create a poll without a creator.");
+            throw new IllegalArgumentException("A poll must have a creator");
+        }
+
+        UserResponse user = userCache.getUsers(Set.of(userId)).get(userId);
+        if (user != null) {
+            lookupContext.addUser(userId, user);
+            return;
+        }
+        validateUserIdExist(userId);
+    }
+
+    /**
+     * Like {@link #validateUserIdExist(UUID, LookupContext)}, for a set of users: their data is fetched in a single call,
+     * and each user missing from it is checked once. The reason each invalid user is invalid is added to the errors.
+     * A user whose check failed because the user service is unavailable is an error of its polls only, not of the batch.
+     */
+    private void validateUserIdsExist(Set<UUID> userIds, LookupContext lookupContext, Map<Object, String> errors) {
+        userCache.getUsers(userIds).forEach(lookupContext::addUser);
+        for (UUID userId : userIds) {
+            if (lookupContext.getUsers().containsKey(userId)) {
+                continue;
+            }
+            try {
+                validateUserIdExist(userId);
+            } catch (ResourceNotFoundException | RequestFailedException
+                     | HttpServerErrorException | CallNotPermittedException | ResourceAccessException e) {
+                errors.put(userId, e.getMessage());
+            }
+        }
+    }
+
     private void validateUserIdExist(UUID userId) {
         log.info("Sending validating user id request to user service");
         ResponseEntity<UserIdExistsResponse> response = userClient.checkUserIdExists(userId);
@@ -112,18 +238,45 @@ public class Validator {
         }
     }
 
-    private void validateGroupIdExist(String groupId) {
-        log.info("Sending validating group id request to group service");
-        ResponseEntity<GroupIdExistsResponse> response = groupClient.checkGroupIdExists(groupId);
+    /**
+     * A group returned by the group data fetch exists, only a group missing from it is checked for existence.
+     */
+    private void validateGroupIdExist(String groupId, LookupContext lookupContext) {
+        if (groupId == null) {
+            log.error("Client tried to create a poll without a group.");
+            throw new IllegalArgumentException("A poll must have a group");
+        }
 
-        if (response.getStatusCode().is2xxSuccessful()) {
-            if(!response.getBody().isExists()){
-                log.error("Group {} does not exists.", groupId);
-                throw new ResourceNotFoundException("Group " + groupId + " does not exist");
+        GroupResponse group = groupCache.getGroups(Set.of(groupId)).get(groupId);
+        if (group != null) {
+            lookupContext.addGroup(groupId, group);
+            return;
+        }
+        validateGroupIdExist(groupId);
+    }
+
+    /**
+     * Like {@link #validateUserIdsExist}, for a set of groups.
+     */
+    private void validateGroupIdsExist(Set<String> groupIds, LookupContext lookupContext, Map<Object, String> errors) {
+        groupCache.getGroups(groupIds).forEach(lookupContext::addGroup);
+        for (String groupId : groupIds) {
+            if (lookupContext.getGroups().containsKey(groupId)) {
+                continue;
             }
-        } else {
-            log.error("Request to group service with group id '{}' failed. Status code {}", groupId, response.getStatusCode());
-            throw new RequestFailedException("Request to group service failed. Status code " + response.getStatusCode());
+            try {
+                validateGroupIdExist(groupId);
+            } catch (ResourceNotFoundException | RequestFailedException
+                     | HttpServerErrorException | CallNotPermittedException | ResourceAccessException e) {
+                errors.put(groupId, e.getMessage());
+            }
+        }
+    }
+
+    private void validateGroupIdExist(String groupId) {
+        if (!groupCache.groupExists(groupId)) {
+            log.error("Group {} does not exists.", groupId);
+            throw new ResourceNotFoundException("Group " + groupId + " does not exist");
         }
     }
 
@@ -134,11 +287,36 @@ public class Validator {
         }
     }
 
+    /**
+     * Validates the vote's action. The voting item's existence and vote count are checked by the vote count update itself.
+     */
     public void validateVoteRequest(VoteRequest voteRequest) throws IllegalArgumentException{
-        validateVotingItemIdExists(voteRequest.votingItemId());
         validateVoteAction(voteRequest.action());
-        validateDeleteVote(voteRequest);
+    }
+
+    public void validateVoteBatchRequest(List<VoteRequest> voteRequests) throws IllegalArgumentException {
+        if (voteRequests == null || voteRequests.isEmpty()) {
+            log.error("Client sent an empty batch of votes.");
+            throw new IllegalArgumentException("A batch of votes cannot be empty");
+        }
+        for (VoteRequest voteRequest : voteRequests) {
+            validateVoteRequest(voteRequest);
+        }
+    }
 
+    /**
+     * Called when a vote count update did not apply to any row, returns the matching exception to throw
+     * (with 'Optional.orElseThrow' on the update's result): either the voting item does not exist,
+     * or its vote count would have become negative.
+     * @return A ResourceNotFoundException if the voting item does not exist, otherwise an IllegalArgumentException.
+     */
+    public RuntimeException rejectedVote(int votingItemId) {
+        if (!votingItemRepository.existsById(votingItemId)) {
+            log.error("Client tried to vote for an answer that does not exist.");
+            return new ResourceNotFoundException("Vote with id " + votingItemId + " does not exist");
+        }
+        log.error("Client tried to remove vote from a vote with 0 vote count.");
+        return new IllegalArgumentException("Can not remove vote from voting item with 0 vote count");
     }
 
     public void validateVoteCountRequest(VoteCountRequest voteCountRequest) throws IllegalArgumentException {
@@ -159,18 +337,10 @@ public class Validator {
         }
     }
 
-    private void validateDeleteVote(VoteRequest voteRequest) throws IllegalArgumentException{
-        if(VoteAction.REMOVE.name().equalsIgnoreCase(voteRequest.action())) {
-            int voteCount = votingItemRepository.getReferenceById(voteRequest.votingItemId()).getVoteCount();
-            if(voteCount <= 0) {
-                log.error("Client tried to remove vote from a vote with 0 vote count.");
-                throw new IllegalArgumentException("Can not remove vote from voting item with 0 vote count");
-            }
-        }
-    }
-
     private boolean isUserCreatedThePoll(UUID userId, UUID pollId) {
-        return pollRepository.getReferenceById(pollId).getCreatorId().equals(userId);
+        return pollRepository.findCreatorIdByPollId(pollId)
+                .map(creatorId -> creatorId.equals(userId))
+                .orElse(false);
     }
 
     private boolean isUserHasPermission(UUID userId, String groupId) {
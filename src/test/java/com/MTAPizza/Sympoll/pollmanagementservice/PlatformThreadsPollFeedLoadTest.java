@@ -0,0 +1,10 @@
+package com.MTAPizza.Sympoll.pollmanagementservice;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * {@link PollFeedLoadTest} with requests and calls to the other services on the bounded platform thread pools.
+ */
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadsPollFeedLoadTest extends PollFeedLoadTest {
+}
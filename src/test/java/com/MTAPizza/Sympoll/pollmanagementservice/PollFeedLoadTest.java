@@ -0,0 +1,154 @@
+package com.MTAPizza.Sympoll.pollmanagementservice;
+
+import com.MTAPizza.Sympoll.pollmanagementservice.stub.GroupClientStub;
+import com.MTAPizza.Sympoll.pollmanagementservice.stub.UserClientStub;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Load test of the '/all-user-polls' feed, with slow stand-ins for the group, user and vote services.
+ * Excluded from the default build. It runs once per thread mode, and logs the throughput and latencies of each:
+ * {@link PlatformThreadsPollFeedLoadTest} always, and {@link VirtualThreadsPollFeedLoadTest} when running on JDK 21.
+ * <pre>
+ * mvn test -Pload-test,jdk21
+ * </pre>
+ * The load can be tuned with the 'load.concurrency', 'load.requests' and 'load.downstream-delay-ms' system properties.
+ * Single-flight reads and the poll view cache are disabled: identical feed requests would otherwise share a few reads,
+ * and the polls would be served without being enriched again, so the comparison would measure them, not the thread modes.
+ * Each mode's context is closed after its run, so the two do not share the WireMock port or the database connections.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"poll.single-flight.enabled=false", "cache.poll-views.enabled=false"})
+@AutoConfigureWireMock(port = 8081) // WireMock runs on port 8081
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@Testcontainers
+abstract class PollFeedLoadTest {
+    private static final Logger log = LoggerFactory.getLogger(PollFeedLoadTest.class);
+    private static final UUID userId = UUID.fromString("b1f8e925-2129-473d-bc09-b3a2a331f839");
+    private static final int concurrency = Integer.getInteger("load.concurrency", 400);
+    private static final int nofRequests = Integer.getInteger("load.requests", 10000);
+    private static final int downstreamDelayMs = Integer.getInteger("load.downstream-delay-ms", 100);
+
+    /**
+    * Initialize postgres test container with the init script inside poll-management-service/test/resources
+    * */
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer =
+            new PostgreSQLContainer<>("postgres:16.2").withInitScript("init.sql");
+
+    @LocalServerPort
+    private Integer port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @BeforeEach
+    void setup() {
+        UserClientStub.initStubs(userId);
+        GroupClientStub.initStubs(userId);
+
+        // Slow down the calls made by every feed request, the user and group data calls are answered by the caches
+        stubFor(get(urlPathEqualTo("/api/group/all-user-groups"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withStatus(200)
+                        .withFixedDelay(downstreamDelayMs)
+                        .withBody("""
+                        {
+                            "userGroups": ["social", "communication", "movies"]
+                        }
+                        """)));
+        stubFor(post(urlEqualTo("/api/vote/user-choices"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withStatus(200)
+                        .withFixedDelay(downstreamDelayMs)
+                        .withBody("""
+                        {
+                            "votingItemIds": [1]
+                        }
+                        """)));
+    }
+
+    @Test
+    void measureAllUserPollsThroughputAndLatency() throws Exception {
+        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/poll/all-user-polls?userId=" + userId))
+                .GET()
+                .build();
+
+        // Warm up the caches, connections and JIT before measuring
+        sendConcurrently(httpClient, request, concurrency);
+
+        long startTime = System.nanoTime();
+        long[] latenciesNanos = sendConcurrently(httpClient, request, nofRequests);
+        double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+
+        Arrays.sort(latenciesNanos);
+        log.info("'/all-user-polls' with {} threads: {} requests, concurrency {}, downstream delay {} ms -> " +
+                        "throughput {} req/s, p50 {} ms, p99 {} ms",
+                virtualThreads ? "virtual" : "platform", nofRequests, concurrency, downstreamDelayMs,
+                String.format("%.1f", nofRequests / elapsedSeconds),
+                String.format("%.1f", percentile(latenciesNanos, 0.50) / 1e6),
+                String.format("%.1f", percentile(latenciesNanos, 0.99) / 1e6));
+    }
+
+    /**
+     * Send the request the given number of times from 'concurrency' client threads, and return the latency of each one.
+     */
+    private long[] sendConcurrently(HttpClient httpClient, HttpRequest request, int nofRequests) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Long>> responses = new ArrayList<>();
+            for (int i = 0; i < nofRequests; i++) {
+                responses.add(clients.submit(() -> {
+                    long requestStartTime = System.nanoTime();
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    assertEquals(200, response.statusCode(), "Expected every feed request to succeed");
+                    return System.nanoTime() - requestStartTime;
+                }));
+            }
+
+            long[] latenciesNanos = new long[nofRequests];
+            for (int i = 0; i < nofRequests; i++) {
+                latenciesNanos[i] = responses.get(i).get();
+            }
+            return latenciesNanos;
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    private static long percentile(long[] sortedValues, double percentile) {
+        return sortedValues[(int) Math.ceil(percentile * sortedValues.length) - 1];
+    }
+}
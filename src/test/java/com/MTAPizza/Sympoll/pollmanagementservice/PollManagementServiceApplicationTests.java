@@ -1,33 +1,89 @@
 package com.MTAPizza.Sympoll.pollmanagementservice;
 
+import com.MTAPizza.Sympoll.pollmanagementservice.cache.BatchCoalescer;
+import com.MTAPizza.Sympoll.pollmanagementservice.cache.GroupCache;
+import com.MTAPizza.Sympoll.pollmanagementservice.cache.PollViewCache;
+import com.MTAPizza.Sympoll.pollmanagementservice.cache.UserCache;
+import com.MTAPizza.Sympoll.pollmanagementservice.client.RequestHedger;
+import com.MTAPizza.Sympoll.pollmanagementservice.config.RestClientConfig;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.error.IllegalArgumentResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.group.DeleteGroupPollsRequest;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.group.DeleteGroupPollsResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.create.PollBulkCreateItemResult;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.create.PollBulkCreateResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.create.PollCreateRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.PollResponse;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.poll.delete.PollDeleteResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.VoteRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.VoteResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.batch.VoteBatchItemResult;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.batch.VoteBatchResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.count.VoteCountRequest;
 import com.MTAPizza.Sympoll.pollmanagementservice.dto.vote.count.VoteCountResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.dto.voting.item.VotingItemResponse;
+import com.MTAPizza.Sympoll.pollmanagementservice.controller.ServiceController;
 import com.MTAPizza.Sympoll.pollmanagementservice.stub.GroupClientStub;
 import com.MTAPizza.Sympoll.pollmanagementservice.stub.UserClientStub;
 import com.MTAPizza.Sympoll.pollmanagementservice.exception.PollExceptionHandler;
+import com.MTAPizza.Sympoll.pollmanagementservice.model.voting.item.VotingItem;
+import com.MTAPizza.Sympoll.pollmanagementservice.repository.voting.item.VotingItemRepository;
+import com.MTAPizza.Sympoll.pollmanagementservice.service.poll.PollService;
+import com.MTAPizza.Sympoll.pollmanagementservice.service.voting.item.VoteCounterSlots;
+import com.MTAPizza.Sympoll.pollmanagementservice.service.voting.item.VoteWriteBehindBuffer;
+import com.MTAPizza.Sympoll.pollmanagementservice.service.voting.item.VotingItemService;
 import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
 import com.google.gson.Gson;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.restassured.RestAssured;
 import io.restassured.common.mapper.TypeRef;
+import io.restassured.path.json.JsonPath;
 import io.restassured.response.Response;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -54,6 +110,45 @@ class PollManagementServiceApplicationTests {
     @LocalServerPort
     private Integer port;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private VotingItemService votingItemService;
+
+    @Autowired
+    private VotingItemRepository votingItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private GroupCache groupCache;
+
+    @Autowired
+    private PollViewCache pollViewCache;
+
+    @Autowired
+    private VoteCounterSlots voteCounterSlots;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PollService pollService;
+
+    @Autowired
+    private RestClientConfig restClientConfig;
+
     @BeforeEach
     void setup() {
         RestAssured.baseURI = "http://localhost";
@@ -159,7 +254,9 @@ class PollManagementServiceApplicationTests {
         List<PollResponse> pollResponses = response.as(new TypeRef<>() {});
         /* Verify poll response */
         assertEquals(5, pollResponses.size(), "Expected 5 Polls in the response");
-        pollId = pollResponses.get(4).pollId(); // Assigned to be the last poll created
+        // Polls created at the same time are ordered by poll ID descending, so the oldest polls are last.
+        // The last one holds the voting items of the vote tests, the one before it is deleted.
+        pollId = pollResponses.get(3).pollId();
     }
 
 
@@ -230,6 +327,30 @@ class PollManagementServiceApplicationTests {
         tryToCreatePollUsingInvalidRequestBody();
         tryToCreatePollWithInvalidDate();
         tryToCreatePollWithInvalidAnswersAllowed();
+        tryToCreatePollWithoutGroup();
+    }
+
+    /**
+     * Test to see that the system rejects a poll without a group as a bad request, before looking the group up.
+     */
+    void tryToCreatePollWithoutGroup(){
+        PollCreateRequest request = new PollCreateRequest(
+                "Favorite Programming Language",
+                "Vote for your favorite programming language",
+                1,
+                userId,
+                null, // Missing group
+                "2099-01-01T10:00:00.000Z",
+                List.of("Java", "Python", "C++", "JavaScript")
+        );
+
+        // Perform the POST request with the invalid request body
+        Response response = tryToCreatePollAndAssertStatusCode(gson.toJson(request), HttpStatus.BAD_REQUEST);
+
+        // Verify the response body
+        IllegalArgumentResponse errorResponse = response.as(IllegalArgumentResponse.class);
+        assertNotNull(errorResponse, "Error response should not be null");
+        assertEquals("A poll must have a group", errorResponse.message());
     }
 
 
@@ -417,4 +538,1113 @@ class PollManagementServiceApplicationTests {
         /* Verify vote count */
         assertEquals(4, pollsResponse.size(), "Expected 4 polls");
     }
+
+    /**
+     * Fetching the polls of many groups should issue the same number of SQL statements as fetching the polls of a few groups.
+     */
+    @Test
+    @Order(10)
+    void shouldGetPollsByMultipleGroupIdsWithConstantNumberOfStatements() {
+        List<String> fewGroupIds = List.of("social", "communication", "movies");
+        List<String> manyGroupIds = new ArrayList<>(fewGroupIds);
+        for (int i = 0; i < 50; i++) {
+            manyGroupIds.add("group-" + i);
+        }
+
+        long fewGroupsStatements = countStatementsOfGetPollsByMultipleGroupIds(fewGroupIds);
+        long manyGroupsStatements = countStatementsOfGetPollsByMultipleGroupIds(manyGroupIds);
+
+        assertEquals(fewGroupsStatements, manyGroupsStatements, "Expected the number of SQL statements not to depend on the number of groups");
+    }
+
+    /**
+     * Send a request to fetch the polls of the given groups, and return the number of SQL statements it issued.
+     */
+    long countStatementsOfGetPollsByMultipleGroupIds(List<String> groupIds) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Check that response is in fact 200
+        Response response = RestAssured.given()
+                .contentType("application/json")
+                .body(gson.toJson(groupIds))
+                .when()
+                .post("/api/poll/by-multiple-group-ids")
+                .then()
+                .statusCode(200)
+                .extract().response();
+
+        List<PollResponse> pollResponses = response.as(new TypeRef<>() {});
+        assertFalse(pollResponses.isEmpty(), "Expected the groups' polls in the response");
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Walk through all polls page by page, and verify every poll is returned exactly once.
+     */
+    @Test
+    @Order(11)
+    void shouldGetAllPollsPageByPage() {
+        List<PollResponse> allPolls = RestAssured.given()
+                .contentType("application/json")
+                .when()
+                .get("/api/poll/all")
+                .then()
+                .statusCode(200)
+                .extract().response().as(new TypeRef<>() {});
+
+        Set<UUID> pagedPollIds = new HashSet<>();
+        String cursor = null;
+        int nofPages = 0;
+        do {
+            var request = RestAssured.given()
+                    .contentType("application/json")
+                    .queryParam("limit", 2);
+            if (cursor != null) {
+                request.queryParam("after", cursor);
+            }
+
+            // Check that response is in fact 200
+            Response response = request.when()
+                    .get("/api/poll/all")
+                    .then()
+                    .statusCode(200)
+                    .extract().response();
+
+            List<PollResponse> page = response.as(new TypeRef<>() {});
+            assertTrue(page.size() <= 2, "Expected at most 2 polls in a page");
+            page.forEach(poll -> assertTrue(pagedPollIds.add(poll.pollId()), "Expected every poll to appear in a single page"));
+
+            cursor = response.getHeader(ServiceController.NEXT_CURSOR_HEADER);
+            nofPages++;
+        } while (cursor != null);
+
+        assertEquals(allPolls.size(), pagedPollIds.size(), "Expected the pages to contain all polls");
+        assertEquals((allPolls.size() + 1) / 2, nofPages, "Expected no empty pages");
+    }
+
+    /**
+     * Fetching all polls should load the polls and all their voting items with a constant number of SQL statements,
+     * instead of a statement per poll.
+     */
+    @Test
+    @Order(12)
+    void shouldGetAllPollsWithConstantNumberOfStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Check that response is in fact 200
+        Response response = RestAssured.given()
+                .contentType("application/json")
+                .when()
+                .get("/api/poll/all")
+                .then()
+                .statusCode(200)
+                .extract().response();
+
+        List<PollResponse> pollResponses = response.as(new TypeRef<>() {});
+        assertTrue(pollResponses.size() > 1, "Expected multiple polls in the response");
+        pollResponses.forEach(poll -> assertFalse(poll.votingItems().isEmpty(), "Expected voting items in every poll"));
+
+        // One statement for the polls, and one for the voting items of all of them
+        assertEquals(2, statistics.getPrepareStatementCount(), "Expected 2 SQL statements");
+    }
+
+    /**
+     * Vote concurrently on the same voting item, and verify no vote is lost and the count never becomes negative.
+     */
+    @Test
+    @Order(13)
+    void shouldCountConcurrentVotesExactly() throws Exception {
+        int nofVotes = 2000;
+        int initialVoteCount = votingItemRepository.findById(votingItemIdForVoteTest).orElseThrow().getVoteCount();
+
+        assertEquals(nofVotes, countSuccessfulConcurrentVotes("add", nofVotes), "Expected all votes to be added");
+        assertEquals(initialVoteCount + nofVotes, votingItemRepository.findById(votingItemIdForVoteTest).orElseThrow().getVoteCount(),
+                "Expected every added vote to be counted");
+
+        // Try to remove more votes than there are, only the existing ones should be removed
+        int nofRemoves = initialVoteCount + nofVotes + 100;
+        assertEquals(initialVoteCount + nofVotes, countSuccessfulConcurrentVotes("remove", nofRemoves), "Expected only existing votes to be removed");
+        assertEquals(0, votingItemRepository.findById(votingItemIdForVoteTest).orElseThrow().getVoteCount(), "Expected 0 vote count");
+    }
+
+    /**
+     * Send the given number of votes with the given action in parallel, and return how many of them succeeded.
+     */
+    int countSuccessfulConcurrentVotes(String action, int nofVotes) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        try {
+            List<Future<Boolean>> votes = new ArrayList<>();
+            for (int i = 0; i < nofVotes; i++) {
+                votes.add(executor.submit(() -> {
+                    try {
+                        votingItemService.updateVotingItem(new VoteRequest(votingItemIdForVoteTest, action));
+                        return true;
+                    } catch (IllegalArgumentException e) {
+                        return false; // Vote count would have become negative
+                    }
+                }));
+            }
+
+            int nofSuccessfulVotes = 0;
+            for (Future<Boolean> vote : votes) {
+                if (vote.get()) {
+                    nofSuccessfulVotes++;
+                }
+            }
+            return nofSuccessfulVotes;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Send a batch of votes, and verify they are collapsed per voting item and invalid ones are reported.
+     */
+    @Test
+    @Order(14)
+    void shouldVoteInBatch() {
+        int unknownVotingItemId = Integer.MAX_VALUE;
+        int emptyVotingItemId = votingItemIdForVoteTest + 1; // 'Instagram', no votes
+        List<VoteRequest> voteRequests = List.of(
+                new VoteRequest(votingItemIdForVoteTest, "add"),
+                new VoteRequest(votingItemIdForVoteTest, "add"),
+                new VoteRequest(votingItemIdForVoteTest, "add"),
+                new VoteRequest(votingItemIdForVoteTest, "remove"),
+                new VoteRequest(emptyVotingItemId, "remove"),
+                new VoteRequest(unknownVotingItemId, "add")
+        );
+
+        // Check that response is in fact 200
+        VoteBatchResponse voteBatchResponse = RestAssured.given()
+                .contentType("application/json")
+                .body(gson.toJson(voteRequests))
+                .when()
+                .put("/api/poll/vote/batch")
+                .then()
+                .statusCode(200)
+                .extract().response().as(VoteBatchResponse.class);
+
+        assertEquals(3, voteBatchResponse.results().size(), "Expected a result per voting item");
+
+        VoteBatchItemResult addedVotesResult = voteBatchResponse.results().get(0);
+        assertEquals(votingItemIdForVoteTest, addedVotesResult.votingItemId());
+        assertEquals(2, addedVotesResult.delta(), "Expected the votes to be collapsed into a single delta");
+        assertEquals(2, addedVotesResult.voteCount(), "Expected 2 vote count");
+        assertNull(addedVotesResult.error());
+
+        VoteBatchItemResult negativeCountResult = voteBatchResponse.results().get(1);
+        assertNull(negativeCountResult.voteCount());
+        assertNotNull(negativeCountResult.error(), "Expected an error for a vote count that would become negative");
+
+        VoteBatchItemResult unknownVotingItemResult = voteBatchResponse.results().get(2);
+        assertNull(unknownVotingItemResult.votingItemDescription());
+        assertNotNull(unknownVotingItemResult.error(), "Expected an error for an unknown voting item");
+    }
+
+    /**
+     * Add votes to counter slots of a voting item in counter slots mode, and verify they are part of its vote count and can be removed.
+     * After folding the slots with the migration required before disabling the mode, the vote count is the same without it.
+     */
+    @Test
+    @Order(15)
+    void shouldCountVotesOfCounterSlots() throws IOException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        VoteCountRequest voteCountRequest = new VoteCountRequest(votingItemIdForVoteTest);
+        int initialVoteCount = votingItemService.getVoteCount(voteCountRequest).voteCount();
+
+        ReflectionTestUtils.setField(voteCounterSlots, "enabled", true);
+        try {
+            transactionTemplate.executeWithoutResult(status -> votingItemRepository.addToVoteCountSlot(votingItemIdForVoteTest, 1, 1));
+            int slotVoteCount = transactionTemplate.execute(status ->
+                    votingItemRepository.addToVoteCountSlot(votingItemIdForVoteTest, 2, 2).orElseThrow().getVoteCount());
+            assertEquals(initialVoteCount + 3, slotVoteCount, "Expected the vote count to include all counter slots");
+            assertEquals(initialVoteCount + 3, votingItemService.getVoteCount(voteCountRequest).voteCount(),
+                    "Expected the voting item's vote count to include its counter slots");
+            assertTrue(transactionTemplate.execute(status -> votingItemRepository.addToVoteCountSlot(Integer.MAX_VALUE, 1, 1)).isEmpty(),
+                    "Expected no counter slot for an unknown voting item");
+
+            // Votes of the counter slots can be removed, but the total count can not become negative
+            for (int i = 0; i < initialVoteCount + 3; i++) {
+                votingItemService.updateVotingItem(new VoteRequest(votingItemIdForVoteTest, "remove"));
+            }
+            assertThrows(IllegalArgumentException.class,
+                    () -> votingItemService.updateVotingItem(new VoteRequest(votingItemIdForVoteTest, "remove")));
+            assertEquals(0, votingItemService.getVoteCount(voteCountRequest).voteCount(), "Expected 0 vote count");
+
+            // Fold the counter slots into their voting items with the migration required before disabling the mode
+            jdbcTemplate.execute(Files.readString(Path.of("docker/migrations/004_fold_voting_item_counter_slots.sql")));
+            assertEquals(0, votingItemService.getVoteCount(voteCountRequest).voteCount(), "Expected 0 vote count");
+        } finally {
+            ReflectionTestUtils.setField(voteCounterSlots, "enabled", false);
+        }
+        assertEquals(0, votingItemService.getVoteCount(voteCountRequest).voteCount(),
+                "Expected the folded votes to be counted without counter slots mode");
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM voting_item_counter_slots", Integer.class),
+                "Expected no counter slots after folding them");
+    }
+
+    /**
+     * Get all polls twice, and verify the creators' data of the second request is served from the user cache.
+     */
+    @Test
+    @Order(16)
+    void shouldServeCreatorsDataFromCache() {
+        // Check that response is in fact 200
+        List<PollResponse> pollResponses = RestAssured.given()
+                .contentType("application/json")
+                .when()
+                .get("/api/poll/all")
+                .then()
+                .statusCode(200)
+                .extract().response().as(new TypeRef<>() {});
+        assertEquals("Roy", pollResponses.get(0).creatorName(), "Expected the creator's name from the user service");
+
+        WireMock.resetAllRequests();
+        RestAssured.given()
+                .contentType("application/json")
+                .when()
+                .get("/api/poll/all")
+                .then()
+                .statusCode(200);
+
+        WireMock.verify(0, WireMock.postRequestedFor(WireMock.urlEqualTo("/api/user/list-by-user-ids")));
+    }
+
+    /**
+     * Get the polls of a group twice, and verify the second request makes no group service calls.
+     */
+    @Test
+    @Order(17)
+    void shouldServeGroupFromCache() {
+        // Check that response is in fact 200
+        List<PollResponse> pollResponses = RestAssured.given()
+                .contentType("application/json")
+                .when()
+                .get("/api/poll/by-group-id?groupId=social")
+                .then()
+                .statusCode(200)
+                .extract().response().as(new TypeRef<>() {});
+        assertEquals("Social", pollResponses.get(0).groupName(), "Expected the group's name from the group service");
+
+        WireMock.resetAllRequests();
+        RestAssured.given()
+                .contentType("application/json")
+                .when()
+                .get("/api/poll/by-group-id?groupId=social")
+                .then()
+                .statusCode(200);
+
+        WireMock.verify(0, WireMock.anyRequestedFor(WireMock.urlPathMatching("/api/group/.*")));
+    }
+
+    /**
+     * Validate many slow groups, and verify their existence checks run concurrently instead of one after another.
+     */
+    @Test
+    @Order(18)
+    void shouldValidateMultipleGroupIdsConcurrently() {
+        int nofGroups = 20;
+        int groupServiceDelayMs = 300;
+        WireMock.stubFor(WireMock.get(WireMock.urlPathEqualTo("/api/group/id"))
+                .willReturn(WireMock.aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withStatus(200)
+                        .withFixedDelay(groupServiceDelayMs)
+                        .withBody("{ \"isExists\": true }")));
+
+        List<String> groupIds = new ArrayList<>();
+        for (int i = 0; i < nofGroups; i++) {
+            groupIds.add("slow-group-" + i);
+        }
+
+        long startTime = System.currentTimeMillis();
+        // Check that response is in fact 200
+        RestAssured.given()
+                .contentType("application/json")
+                .body(gson.toJson(groupIds))
+                .when()
+                .post("/api/poll/by-multiple-group-ids")
+                .then()
+                .statusCode(200);
+        long elapsedMs = System.currentTimeMillis() - startTime;
+
+        WireMock.verify(nofGroups, WireMock.getRequestedFor(WireMock.urlPathEqualTo("/api/group/id")));
+        assertTrue(elapsedMs < (long) nofGroups * groupServiceDelayMs / 2,
+                "Expected the group existence checks to run concurrently, took " + elapsedMs + " ms");
+    }
+
+    /**
+     * Open the group service's circuit breaker, and verify uncached groups fail fast while cached groups are still served.
+     */
+    @Test
+    @Order(19)
+    void shouldFailFastWhileCircuitBreakerIsOpen() {
+        CircuitBreaker groupServiceCircuitBreaker = circuitBreakerRegistry.circuitBreaker("group-service");
+        groupServiceCircuitBreaker.transitionToForcedOpenState();
+        try {
+            WireMock.resetAllRequests();
+
+            // Check that response is in fact 503
+            RestAssured.given()
+                    .contentType("application/json")
+                    .when()
+                    .get("/api/poll/by-group-id?groupId=group-9999")
+                    .then()
+                    .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value());
+
+            // Check that response is in fact 200
+            RestAssured.given()
+                    .contentType("application/json")
+                    .when()
+                    .get("/api/poll/by-group-id?groupId=social")
+                    .then()
+                    .statusCode(200);
+
+            WireMock.verify(0, WireMock.anyRequestedFor(WireMock.urlPathMatching("/api/group/.*")));
+        } finally {
+            groupServiceCircuitBreaker.transitionToClosedState();
+        }
+
+        assertNotNull(meterRegistry.find("resilience4j.circuitbreaker.transitions")
+                .tags("name", "group-service", "to", "FORCED_OPEN")
+                .counter(), "Expected the circuit breaker's state transition to be counted");
+    }
+
+    /**
+     * Look up uncached users from concurrent requests, and verify their lookups are coalesced into shared batch calls.
+     */
+    @Test
+    @Order(20)
+    void shouldCoalesceConcurrentUserLookups() throws Exception {
+        int nofLookups = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(nofLookups);
+        try {
+            WireMock.resetAllRequests();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> lookups = new ArrayList<>();
+            for (int i = 0; i < nofLookups; i++) {
+                lookups.add(executor.submit(() -> {
+                    start.await();
+                    return userCache.getUsers(Set.of(UUID.randomUUID(), userId));
+                }));
+            }
+            start.countDown();
+            for (Future<?> lookup : lookups) {
+                lookup.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int nofBatchCalls = WireMock.findAll(WireMock.postRequestedFor(WireMock.urlEqualTo("/api/user/list-by-user-ids"))).size();
+        assertTrue(nofBatchCalls > 0 && nofBatchCalls < nofLookups,
+                "Expected concurrent lookups to share batch calls, but got " + nofBatchCalls + " calls for " + nofLookups + " lookups");
+    }
+
+    /**
+     * Make fast calls until the hedge delay is known, then make a slow call, and verify it is answered by its hedge.
+     */
+    @Test
+    @Order(21)
+    void shouldAnswerSlowCallWithHedge() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            RequestHedger hedger = new RequestHedger("test-hedging", true, 95, Duration.ofMillis(5), 10, executor, meterRegistry);
+            for (int i = 0; i < 150; i++) {
+                assertEquals("fast", hedger.call(() -> "fast"));
+            }
+            // Latencies are recorded once the calls complete, wait until the hedge delay is computed from them
+            long deadline = System.currentTimeMillis() + 5000;
+            while (meterRegistry.get("hedging.delay").tag("name", "test-hedging").gauge().value() == 0
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            AtomicInteger attempts = new AtomicInteger();
+            long startTime = System.currentTimeMillis();
+            String answer = hedger.call(() -> {
+                if (attempts.incrementAndGet() == 1) {
+                    try {
+                        Thread.sleep(2000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "slow";
+                }
+                return "hedged";
+            });
+            long elapsedMs = System.currentTimeMillis() - startTime;
+
+            assertEquals("hedged", answer, "Expected the slow call to be answered by its hedge");
+            assertTrue(elapsedMs < 1000, "Expected the hedge to answer before the slow call, but took " + elapsedMs + " ms");
+            assertEquals(1, meterRegistry.get("hedging.hedges").tag("name", "test-hedging").counter().count());
+            assertEquals(1, meterRegistry.get("hedging.wins").tag("name", "test-hedging").counter().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Send identical concurrent requests for a group's polls, and verify they share a single read.
+     */
+    @Test
+    @Order(22)
+    void shouldShareIdenticalConcurrentReads() throws Exception {
+        int nofRequests = 20;
+        WireMock.stubFor(WireMock.post(WireMock.urlEqualTo("/api/vote/user-choices"))
+                .willReturn(WireMock.aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withStatus(200)
+                        .withFixedDelay(500)
+                        .withBody("{ \"votingItemIds\": [] }")));
+        WireMock.resetAllRequests();
+
+        ExecutorService executor = Executors.newFixedThreadPool(nofRequests);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> responses = new ArrayList<>();
+            for (int i = 0; i < nofRequests; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return RestAssured.given()
+                            .when()
+                            .get("/api/poll/by-group-id?groupId=social&userId=" + userId)
+                            .statusCode();
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> response : responses) {
+                assertEquals(200, response.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int nofVoteCalls = WireMock.findAll(WireMock.postRequestedFor(WireMock.urlEqualTo("/api/vote/user-choices"))).size();
+        assertTrue(nofVoteCalls > 0 && nofVoteCalls < nofRequests,
+                "Expected identical concurrent requests to share reads, but got " + nofVoteCalls + " vote service calls for " + nofRequests + " requests");
+    }
+
+    /**
+     * Get the polls of a group with a user's choices, vote on one of them, and verify the cached polls
+     * are invalidated by the vote while the user's choices are still applied.
+     */
+    @Test
+    @Order(23)
+    void shouldInvalidateCachedPollOnVote() {
+        List<PollResponse> pollResponses = RestAssured.given()
+                .when()
+                .get("/api/poll/by-group-id?groupId=social")
+                .then()
+                .statusCode(200)
+                .extract().response().as(new TypeRef<>() {});
+        int votingItemId = pollResponses.get(0).votingItems().get(0).votingItemId();
+        long voteCount = pollResponses.get(0).votingItems().get(0).voteCount();
+
+        WireMock.stubFor(WireMock.post(WireMock.urlEqualTo("/api/vote/user-choices"))
+                .willReturn(WireMock.aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withStatus(200)
+                        .withBody("{ \"votingItemIds\": [" + votingItemId + "] }")));
+        WireMock.resetAllRequests();
+        List<PollResponse> cachedPollResponses = RestAssured.given()
+                .when()
+                .get("/api/poll/by-group-id?groupId=social&userId=" + userId)
+                .then()
+                .statusCode(200)
+                .extract().response().as(new TypeRef<>() {});
+        WireMock.verify(0, WireMock.postRequestedFor(WireMock.urlEqualTo("/api/user/list-by-user-ids")));
+        WireMock.verify(0, WireMock.postRequestedFor(WireMock.urlEqualTo("/api/group/groups-list")));
+        assertTrue(cachedPollResponses.get(0).votingItems().get(0).checked(), "Expected the user's choice on the cached poll");
+        assertFalse(pollResponses.get(0).votingItems().get(0).checked());
+
+        votingItemService.updateVotingItem(new VoteRequest(votingItemId, "add"));
+
+        List<PollResponse> updatedPollResponses = RestAssured.given()
+                .when()
+                .get("/api/poll/by-group-id?groupId=social")
+                .then()
+                .statusCode(200)
+                .extract().response().as(new TypeRef<>() {});
+        assertEquals(voteCount + 1, updatedPollResponses.get(0).votingItems().get(0).voteCount(),
+                "Expected the vote to invalidate the cached poll");
+    }
+
+    /**
+     * Send concurrent feed requests while the vote service is slow, and verify no database connection is held
+     * while the requests wait for it.
+     */
+    @Test
+    @Order(24)
+    void shouldNotHoldConnectionsDuringSlowCalls() throws Exception {
+        int nofRequests = 10;
+        int voteServiceDelayMs = 1500;
+        WireMock.stubFor(WireMock.post(WireMock.urlEqualTo("/api/vote/user-choices"))
+                .willReturn(WireMock.aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withStatus(200)
+                        .withFixedDelay(voteServiceDelayMs)
+                        .withBody("{ \"votingItemIds\": [] }")));
+
+        ExecutorService executor = Executors.newFixedThreadPool(nofRequests);
+        try {
+            List<Future<Integer>> responses = new ArrayList<>();
+            for (int i = 0; i < nofRequests; i++) {
+                // A different user for each request, so the requests are not merged into a single read
+                UUID requestUserId = UUID.randomUUID();
+                responses.add(executor.submit(() -> RestAssured.given()
+                        .when()
+                        .get("/api/poll/by-group-id?groupId=social&userId=" + requestUserId)
+                        .statusCode()));
+            }
+
+            // Sample the pool while the requests wait for the vote service
+            Thread.sleep(voteServiceDelayMs / 3);
+            double maxActiveConnections = 0;
+            long samplingEnd = System.currentTimeMillis() + voteServiceDelayMs / 2;
+            while (System.currentTimeMillis() < samplingEnd) {
+                maxActiveConnections = Math.max(maxActiveConnections, meterRegistry.get("hikaricp.connections.active").gauge().value());
+                Thread.sleep(10);
+            }
+
+            for (Future<Integer> response : responses) {
+                assertEquals(200, response.get());
+            }
+            assertTrue(maxActiveConnections <= 1,
+                    "Expected no connections to be held during the vote service calls, but " + maxActiveConnections + " were active");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Create a poll, and verify the creator's and group's data fetched by the validation is reused in the response,
+     * with at most one call to each of the user and group services.
+     */
+    @Test
+    @Order(25)
+    void shouldReuseValidationLookupsInCreatedPoll() {
+        String requestBody = String.format("""
+                {
+                  "title": "Best board game",
+                  "description": "Vote for the best board game",
+                  "nofAnswersAllowed": 1,
+                  "creatorId": "%s",
+                  "groupId": "communication",
+                  "deadline": "2099-12-22T10:00:00.000Z",
+                  "votingItems": [
+                    "Catan",
+                    "Carcassonne"
+                  ]
+                }
+                """, userId);
+
+        WireMock.resetAllRequests();
+        PollResponse pollResponse = tryToCreatePollAndAssertStatusCode(requestBody, HttpStatus.CREATED).as(PollResponse.class);
+
+        assertEquals("Roy", pollResponse.creatorName(), "Expected the creator's name fetched by the validation");
+        assertEquals("Communication", pollResponse.groupName(), "Expected the group's name fetched by the validation");
+        WireMock.verify(0, WireMock.getRequestedFor(WireMock.urlPathEqualTo("/api/user/id")));
+        WireMock.verify(0, WireMock.getRequestedFor(WireMock.urlPathEqualTo("/api/group/id")));
+        assertTrue(WireMock.findAll(WireMock.postRequestedFor(WireMock.urlEqualTo("/api/user/list-by-user-ids"))).size() <= 1);
+        assertTrue(WireMock.findAll(WireMock.postRequestedFor(WireMock.urlEqualTo("/api/group/groups-list"))).size() <= 1);
+    }
+
+    /**
+     * Create polls with few and many voting items, and verify the number of SQL statements does not depend on
+     * the number of voting items (at most one more, when a new block of voting item IDs is allocated).
+     */
+    @Test
+    @Order(26)
+    void shouldCreatePollWithBatchedVotingItemInserts() {
+        long fewVotingItemsStatements = countStatementsOfCreatePoll(2);
+        long manyVotingItemsStatements = countStatementsOfCreatePoll(20);
+
+        assertTrue(manyVotingItemsStatements <= fewVotingItemsStatements + 1,
+                "Expected the voting items to be inserted in a batch, but creating a poll with 20 voting items issued "
+                        + manyVotingItemsStatements + " SQL statements, and with 2 voting items " + fewVotingItemsStatements);
+    }
+
+    /**
+     * Create a batch of valid and invalid polls, and verify each poll gets its own outcome, the distinct creators are
+     * validated once for the whole batch, and the polls are inserted with batched statements.
+     */
+    @Test
+    @Order(27)
+    void shouldCreatePollsInBulk() {
+        int nofValidPolls = 10;
+        UUID unknownUserId = UUID.randomUUID();
+        WireMock.stubFor(WireMock.get(WireMock.urlEqualTo("/api/user/id?userId=" + unknownUserId))
+                .willReturn(WireMock.aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withStatus(200)
+                        .withBody("{ \"isExists\": false }")));
+
+        List<PollCreateRequest> pollCreateRequests = new ArrayList<>();
+        for (int i = 0; i < nofValidPolls; i++) {
+            pollCreateRequests.add(new PollCreateRequest("Recurring poll " + i, "Daily standup time", 1, userId,
+                    "communication", "2099-12-22T10:00:00.000Z", List.of("Morning", "Noon")));
+        }
+        pollCreateRequests.add(new PollCreateRequest("Too many answers", "Invalid", 3, userId,
+                "communication", "2099-12-22T10:00:00.000Z", List.of("Morning", "Noon")));
+        pollCreateRequests.add(new PollCreateRequest("Unknown creator", "Invalid", 1, unknownUserId,
+                "communication", "2099-12-22T10:00:00.000Z", List.of("Morning", "Noon")));
+        pollCreateRequests.add(new PollCreateRequest("Unknown creator again", "Invalid", 1, unknownUserId,
+                "communication", "2099-12-22T10:00:00.000Z", List.of("Morning", "Noon")));
+
+        WireMock.resetAllRequests();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        PollBulkCreateResponse pollBulkCreateResponse = RestAssured.given()
+                .contentType("application/json")
+                .body(gson.toJson(pollCreateRequests))
+                .when()
+                .post("/api/poll/bulk")
+                .then()
+                .statusCode(200)
+                .extract().response().as(PollBulkCreateResponse.class);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(pollCreateRequests.size(), pollBulkCreateResponse.results().size(), "Expected a result per poll");
+        for (int i = 0; i < nofValidPolls; i++) {
+            PollBulkCreateItemResult result = pollBulkCreateResponse.results().get(i);
+            assertEquals(i, result.index());
+            assertNull(result.error());
+            assertEquals("Recurring poll " + i, result.poll().title());
+            assertEquals("Roy", result.poll().creatorName());
+            assertEquals("Communication", result.poll().groupName());
+            assertEquals(2, result.poll().votingItems().size());
+        }
+        for (int i = nofValidPolls; i < pollCreateRequests.size(); i++) {
+            PollBulkCreateItemResult result = pollBulkCreateResponse.results().get(i);
+            assertNull(result.poll());
+            assertNotNull(result.error(), "Expected an error for an invalid poll");
+        }
+
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/api/user/id?userId=" + unknownUserId)));
+        assertTrue(WireMock.findAll(WireMock.postRequestedFor(WireMock.urlEqualTo("/api/user/list-by-user-ids"))).size() <= 1);
+        assertTrue(WireMock.findAll(WireMock.postRequestedFor(WireMock.urlEqualTo("/api/group/groups-list"))).size() <= 1);
+        assertTrue(statements < nofValidPolls,
+                "Expected the polls to be inserted in batches, but creating " + nofValidPolls + " polls issued " + statements + " SQL statements");
+    }
+
+    /**
+     * Delete the polls of a group, and verify the vote service gets all of their voting items, the polls are gone,
+     * and the deletion used set-based statements instead of loading and deleting the polls one by one.
+     * The group's polls are read again after the deletes, to delete polls created in the meantime.
+     */
+    @Test
+    @Order(28)
+    void shouldDeleteGroupPollsWithSetBasedStatements() {
+        String groupId = "group-7";
+        List<PollCreateRequest> pollCreateRequests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            pollCreateRequests.add(new PollCreateRequest("Group poll " + i, "To be deleted", 1, userId,
+                    groupId, "2099-12-22T10:00:00.000Z", List.of("Yes", "No")));
+        }
+        PollBulkCreateResponse pollBulkCreateResponse = RestAssured.given()
+                .contentType("application/json")
+                .body(gson.toJson(pollCreateRequests))
+                .when()
+                .post("/api/poll/bulk")
+                .then()
+                .statusCode(200)
+                .extract().response().as(PollBulkCreateResponse.class);
+        Set<UUID> createdPollIds = new HashSet<>();
+        Set<Integer> createdVotingItemIds = new HashSet<>();
+        for (PollBulkCreateItemResult result : pollBulkCreateResponse.results()) {
+            createdPollIds.add(result.poll().pollId());
+            result.poll().votingItems().forEach(votingItem -> createdVotingItemIds.add(votingItem.votingItemId()));
+        }
+
+        WireMock.stubFor(WireMock.delete(WireMock.urlEqualTo("/api/vote/delete-multiple"))
+                .willReturn(WireMock.aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withStatus(200)
+                        .withBody("{ \"voteIds\": [] }")));
+        WireMock.resetAllRequests();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        DeleteGroupPollsResponse deleteGroupPollsResponse = RestAssured.given()
+                .contentType("application/json")
+                .body(gson.toJson(new DeleteGroupPollsRequest(groupId)))
+                .when()
+                .delete("/api/poll/by-group-id")
+                .then()
+                .statusCode(200)
+                .extract().response().as(DeleteGroupPollsResponse.class);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(createdPollIds, new HashSet<>(deleteGroupPollsResponse.pollsIds()));
+        List<LoggedRequest> voteServiceRequests = WireMock.findAll(WireMock.deleteRequestedFor(WireMock.urlEqualTo("/api/vote/delete-multiple")));
+        assertEquals(1, voteServiceRequests.size());
+        List<Integer> deletedVotingItemIds = JsonPath.from(voteServiceRequests.get(0).getBodyAsString()).getList("votingItemIds", Integer.class);
+        assertEquals(createdVotingItemIds, new HashSet<>(deletedVotingItemIds));
+        assertEquals(0, statistics.getEntityLoadCount(), "Expected the polls to be deleted without loading them");
+        assertTrue(statements <= 4,
+                "Expected a projection query, a delete per table and a final projection query finding no polls left, " +
+                        "but deleting the group's polls issued " + statements + " SQL statements");
+
+        List<PollResponse> groupPolls = RestAssured.given()
+                .when()
+                .get("/api/poll/by-group-id?groupId=" + groupId)
+                .then()
+                .statusCode(200)
+                .extract().response().as(new TypeRef<>() {});
+        assertTrue(groupPolls.isEmpty(), "Expected the group's polls to be deleted");
+    }
+
+    /**
+     * Leave a journal segment that was applied before a crash (but not deleted) and one that was not applied,
+     * and verify the write-behind buffer only replays the unapplied segment on startup.
+     * The unapplied segment also removes more votes than a voting item has, which must not make its count negative.
+     */
+    @Test
+    @Order(29)
+    void shouldNotReplayAppliedJournalSegments(@TempDir Path journalDirectory) throws IOException {
+        int initialVoteCount = votingItemRepository.findById(votingItemIdForVoteTest).orElseThrow().getVoteCount();
+        int otherVotingItemId = votingItemRepository.findAll().stream()
+                .map(VotingItem::getVotingItemId)
+                .filter(votingItemId -> votingItemId != votingItemIdForVoteTest)
+                .findFirst().orElseThrow();
+        Files.write(journalDirectory.resolve("votes-crashed-0.journal"), journalRecords(votingItemIdForVoteTest, 1, 1));
+        Files.write(journalDirectory.resolve("votes-crashed-1.journal"), journalRecords(votingItemIdForVoteTest, 1));
+        Files.write(journalDirectory.resolve("votes-crashed-2.journal"), journalRecords(otherVotingItemId, -1000));
+        votingItemRepository.addToVoteCounts(Map.of(), List.of("votes-crashed-0"));
+
+        VoteWriteBehindBuffer voteWriteBehindBuffer = new VoteWriteBehindBuffer(votingItemRepository, voteCounterSlots, pollViewCache,
+                true, 60_000, 1000, true, journalDirectory.toString(), false, 2, 256);
+        ReflectionTestUtils.invokeMethod(voteWriteBehindBuffer, "start");
+        ReflectionTestUtils.invokeMethod(voteWriteBehindBuffer, "stop");
+
+        assertEquals(initialVoteCount + 1, votingItemRepository.findById(votingItemIdForVoteTest).orElseThrow().getVoteCount(),
+                "Expected only the votes of the unapplied segment to be replayed");
+        assertEquals(0, votingItemRepository.findById(otherVotingItemId).orElseThrow().getVoteCount(),
+                "Expected the removed votes to be floored at zero");
+        assertTrue(votingItemRepository.findAppliedJournalSegments(List.of("votes-crashed-0", "votes-crashed-1", "votes-crashed-2")).isEmpty(),
+                "Expected the applied records to be deleted with their segments");
+        assertFalse(Files.exists(journalDirectory.resolve("votes-crashed-0.journal")));
+        assertFalse(Files.exists(journalDirectory.resolve("votes-crashed-1.journal")));
+        assertFalse(Files.exists(journalDirectory.resolve("votes-crashed-2.journal")));
+    }
+
+    /**
+     * Create a batch with a poll the database rejects, an empty poll and a poll without a deadline,
+     * and verify only those polls fail, while the rest of the batch is created.
+     */
+    @Test
+    @Order(30)
+    void shouldReportEachFailedPollOfBulkCreate() {
+        List<PollCreateRequest> pollCreateRequests = new ArrayList<>();
+        pollCreateRequests.add(new PollCreateRequest("Valid poll", "Created", 1, userId,
+                "communication", "2099-12-22T10:00:00.000Z", List.of("Yes", "No")));
+        // Longer than the title column, so its insert fails
+        pollCreateRequests.add(new PollCreateRequest("x".repeat(300), "Rejected by the database", 1, userId,
+                "communication", "2099-12-22T10:00:00.000Z", List.of("Yes", "No")));
+        pollCreateRequests.add(null);
+        pollCreateRequests.add(new PollCreateRequest("Without deadline", "Invalid", 1, userId,
+                "communication", null, List.of("Yes", "No")));
+        pollCreateRequests.add(new PollCreateRequest("Another valid poll", "Created", 1, userId,
+                "communication", "2099-12-22T10:00:00.000Z", List.of("Yes", "No")));
+        // Its creator's check fails with a server error of the user service
+        UUID failingCreatorId = UUID.randomUUID();
+        WireMock.stubFor(WireMock.get(WireMock.urlEqualTo("/api/user/id?userId=" + failingCreatorId))
+                .willReturn(WireMock.aResponse().withStatus(500)));
+        pollCreateRequests.add(new PollCreateRequest("Creator check failed", "Invalid", 1, failingCreatorId,
+                "communication", "2099-12-22T10:00:00.000Z", List.of("Yes", "No")));
+
+        PollBulkCreateResponse pollBulkCreateResponse = RestAssured.given()
+                .contentType("application/json")
+                .body(gson.toJson(pollCreateRequests))
+                .when()
+                .post("/api/poll/bulk")
+                .then()
+                .statusCode(200)
+                .extract().response().as(PollBulkCreateResponse.class);
+
+        List<PollBulkCreateItemResult> results = pollBulkCreateResponse.results();
+        assertEquals(pollCreateRequests.size(), results.size(), "Expected a result per poll");
+        assertEquals("Valid poll", results.get(0).poll().title());
+        assertEquals("Another valid poll", results.get(4).poll().title());
+        for (int index : List.of(1, 2, 3, 5)) {
+            assertNull(results.get(index).poll());
+            assertNotNull(results.get(index).error(), "Expected an error for poll " + index);
+        }
+    }
+
+    /**
+     * Get the polls of a group missing from the group service's data list twice,
+     * and verify the second request makes no group service calls.
+     */
+    @Test
+    @Order(31)
+    void shouldCacheGroupMissingFromDataList() {
+        PollCreateRequest request = new PollCreateRequest("Group without data", "Its group is not in the data list", 1, userId,
+                "group-31", "2099-12-22T10:00:00.000Z", List.of("Yes", "No"));
+        PollResponse pollResponse = tryToCreatePollAndAssertStatusCode(gson.toJson(request), HttpStatus.CREATED).as(PollResponse.class);
+
+        for (int i = 0; i < 2; i++) {
+            // The poll's view is not cached, so the group's data is looked up by each request
+            pollViewCache.invalidate(List.of(pollResponse.pollId()));
+            WireMock.resetAllRequests();
+
+            // Check that response is in fact 200
+            RestAssured.given()
+                    .contentType("application/json")
+                    .when()
+                    .get("/api/poll/by-group-id?groupId=group-31")
+                    .then()
+                    .statusCode(200);
+        }
+
+        WireMock.verify(0, WireMock.anyRequestedFor(WireMock.urlPathMatching("/api/group/.*")));
+    }
+
+    /**
+     * Buffer votes in write-behind mode, and verify only the first vote of a voting item reads the database,
+     * the vote count can not become negative, and the flush writes the buffered votes.
+     */
+    @Test
+    @Order(32)
+    void shouldBufferVotesWithoutReadingTheDatabase() {
+        VoteWriteBehindBuffer voteWriteBehindBuffer = new VoteWriteBehindBuffer(votingItemRepository, voteCounterSlots, pollViewCache,
+                true, 60_000, 60_000, false, "vote-journal", false, 2, 256);
+        ReflectionTestUtils.invokeMethod(voteWriteBehindBuffer, "start");
+        try {
+            int initialVoteCount = votingItemRepository.findById(votingItemIdForVoteTest).orElseThrow().getVoteCount();
+            assertEquals(initialVoteCount + 1, voteWriteBehindBuffer.add(votingItemIdForVoteTest, 1).orElseThrow().getVoteCount());
+            assertTrue(voteWriteBehindBuffer.add(Integer.MAX_VALUE, 1).isEmpty(), "Expected an unknown voting item to be rejected");
+
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+            for (int i = 0; i < 10; i++) {
+                voteWriteBehindBuffer.add(votingItemIdForVoteTest, 1);
+            }
+            for (int i = 0; i < initialVoteCount + 11; i++) {
+                assertTrue(voteWriteBehindBuffer.add(votingItemIdForVoteTest, -1).isPresent());
+            }
+            assertTrue(voteWriteBehindBuffer.add(votingItemIdForVoteTest, -1).isEmpty(), "Expected the vote count to not become negative");
+            assertEquals(0, statistics.getPrepareStatementCount(), "Expected the votes to be checked against the cached vote count");
+        } finally {
+            ReflectionTestUtils.invokeMethod(voteWriteBehindBuffer, "stop");
+        }
+        assertEquals(0, votingItemRepository.findById(votingItemIdForVoteTest).orElseThrow().getVoteCount(),
+                "Expected the buffered votes to be flushed");
+    }
+
+    /**
+     * Remove all votes of a voting item with buffered single votes in write-behind mode, and verify a batch can not
+     * remove the same votes again, as its removes are checked against the buffered votes as well.
+     */
+    @Test
+    @Order(33)
+    void shouldCheckBatchRemovesAgainstBufferedVotes() {
+        VoteWriteBehindBuffer voteWriteBehindBuffer = new VoteWriteBehindBuffer(votingItemRepository, voteCounterSlots, pollViewCache,
+                true, 60_000, 60_000, false, "vote-journal", false, 2, 256);
+        Object serviceBuffer = ReflectionTestUtils.getField(votingItemService, "voteWriteBehindBuffer");
+        ReflectionTestUtils.invokeMethod(voteWriteBehindBuffer, "start");
+        ReflectionTestUtils.setField(votingItemService, "voteWriteBehindBuffer", voteWriteBehindBuffer);
+        try {
+            votingItemService.updateVotingItem(new VoteRequest(votingItemIdForVoteTest, "add"));
+            votingItemService.updateVotingItem(new VoteRequest(votingItemIdForVoteTest, "remove"));
+            int voteCount = votingItemService.getVoteCount(new VoteCountRequest(votingItemIdForVoteTest)).voteCount();
+            for (int i = 0; i < voteCount; i++) {
+                votingItemService.updateVotingItem(new VoteRequest(votingItemIdForVoteTest, "remove"));
+            }
+
+            VoteBatchResponse voteBatchResponse = votingItemService.updateVotingItems(List.of(
+                    new VoteRequest(votingItemIdForVoteTest, "remove"),
+                    new VoteRequest(Integer.MAX_VALUE, "add")));
+            assertNotNull(voteBatchResponse.results().get(0).error(), "Expected the batch's remove to be checked against the buffered votes");
+            assertNotNull(voteBatchResponse.results().get(0).votingItemDescription());
+            assertNull(voteBatchResponse.results().get(1).votingItemDescription(), "Expected an error for an unknown voting item");
+            assertNotNull(voteBatchResponse.results().get(1).error());
+        } finally {
+            ReflectionTestUtils.setField(votingItemService, "voteWriteBehindBuffer", serviceBuffer);
+            ReflectionTestUtils.invokeMethod(voteWriteBehindBuffer, "stop");
+        }
+        assertEquals(0, votingItemRepository.findById(votingItemIdForVoteTest).orElseThrow().getVoteCount(),
+                "Expected no removed vote to be dropped by the flush");
+    }
+
+    /**
+     * Fill the vote service's executor with an 'abort' rejection policy, and verify a feed request is still answered,
+     * with the documented fallback of a rejected call: the user's choices are missing, and the vote service is not called.
+     */
+    @Test
+    @Order(34)
+    void shouldUseFallbackWhenServiceExecutorIsFull() {
+        WireMock.stubFor(WireMock.post(WireMock.urlEqualTo("/api/vote/user-choices"))
+                .willReturn(WireMock.aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withStatus(200)
+                        .withBody("{ \"votingItemIds\": [" + votingItemIdForVoteTest + "] }")));
+
+        // A single busy thread and a full queue, so the next call is rejected
+        CountDownLatch release = new CountDownLatch(1);
+        ThreadPoolExecutor fullExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+        fullExecutor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        fullExecutor.execute(() -> {});
+
+        Object voteServiceExecutor = ReflectionTestUtils.getField(pollService, "voteServiceExecutor");
+        ReflectionTestUtils.setField(pollService, "voteServiceExecutor", fullExecutor);
+        WireMock.resetAllRequests();
+        try {
+            List<PollResponse> pollResponses = RestAssured.given()
+                    .when()
+                    .get("/api/poll/by-group-id?groupId=social&userId=" + userId)
+                    .then()
+                    .statusCode(200)
+                    .extract().response().as(new TypeRef<>() {});
+            assertFalse(pollResponses.isEmpty());
+            assertTrue(pollResponses.stream().flatMap(pollResponse -> pollResponse.votingItems().stream()).noneMatch(VotingItemResponse::checked),
+                    "Expected no user's choices when the vote service call was rejected");
+            WireMock.verify(0, WireMock.postRequestedFor(WireMock.urlEqualTo("/api/vote/user-choices")));
+        } finally {
+            ReflectionTestUtils.setField(pollService, "voteServiceExecutor", voteServiceExecutor);
+            release.countDown();
+            fullExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Call a delayed service, and a service that does not accept connections, with a pooled client,
+     * and verify both calls fail within the client's read and connect timeouts instead of waiting for the service.
+     */
+    @Test
+    @Order(35)
+    void shouldEnforceTimeoutsOfPooledClient() {
+        int connectTimeoutMs = 200;
+        int readTimeoutMs = 300;
+        int serviceDelayMs = 3000;
+        WireMock.stubFor(WireMock.get(WireMock.urlEqualTo("/api/slow-service"))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(serviceDelayMs)));
+        ClientHttpRequestFactory requestFactory = ReflectionTestUtils.invokeMethod(restClientConfig, "requestFactory",
+                "timeout-test", meterRegistry, "pooled", 10, 10, connectTimeoutMs, readTimeoutMs, 30);
+        RestClient restClient = RestClient.builder()
+                .requestFactory(requestFactory)
+                .build();
+
+        long startTime = System.nanoTime();
+        assertThrows(ResourceAccessException.class,
+                () -> restClient.get().uri("http://localhost:8081/api/slow-service").retrieve().toBodilessEntity());
+        long readElapsedMs = Duration.ofNanos(System.nanoTime() - startTime).toMillis();
+        assertTrue(readElapsedMs >= readTimeoutMs && readElapsedMs < serviceDelayMs,
+                "Expected the call to fail after the read timeout, but it took " + readElapsedMs + " ms");
+
+        // A non-routable address, so the connection is never accepted
+        startTime = System.nanoTime();
+        assertThrows(ResourceAccessException.class,
+                () -> restClient.get().uri("http://10.255.255.1:8081/api/slow-service").retrieve().toBodilessEntity());
+        long connectElapsedMs = Duration.ofNanos(System.nanoTime() - startTime).toMillis();
+        assertTrue(connectElapsedMs < serviceDelayMs,
+                "Expected the call to fail within the connect timeout, but it took " + connectElapsedMs + " ms");
+    }
+
+    /**
+     * Look up keys with a long batch window and no concurrent callers, and verify the lookup does not wait for the window.
+     */
+    @Test
+    @Order(36)
+    void shouldNotWaitForBatchWindowWithoutConcurrentLookups() {
+        Duration window = Duration.ofSeconds(5);
+        BatchCoalescer<Integer, String> batchCoalescer = new BatchCoalescer<>("lone-lookup",
+                keys -> Map.of(1, "one"), window, 100, meterRegistry);
+
+        long startTime = System.nanoTime();
+        assertEquals(Map.of(1, "one"), batchCoalescer.load(Set.of(1, 2)));
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - startTime).toMillis();
+        assertTrue(elapsedMs < window.toMillis() / 5,
+                "Expected a lone lookup to load at once, but it took " + elapsedMs + " ms");
+    }
+
+    /**
+     * Fill the group service's executor with an 'abort' rejection policy, and verify groups missing from the group data list
+     * are still validated, with their existence checks run on the request's thread instead of failing the request.
+     */
+    @Test
+    @Order(37)
+    void shouldCheckGroupsInlineWhenGroupExecutorIsFull() {
+        // A single busy thread and a full queue, so the next check is rejected
+        CountDownLatch release = new CountDownLatch(1);
+        ThreadPoolExecutor fullExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+        fullExecutor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        fullExecutor.execute(() -> {});
+
+        Object groupServiceExecutor = ReflectionTestUtils.getField(groupCache, "groupServiceExecutor");
+        ReflectionTestUtils.setField(groupCache, "groupServiceExecutor", fullExecutor);
+        WireMock.resetAllRequests();
+        try {
+            RestAssured.given()
+                    .contentType("application/json")
+                    .body(gson.toJson(List.of("group-370", "group-371")))
+                    .when()
+                    .post("/api/poll/by-multiple-group-ids")
+                    .then()
+                    .statusCode(200);
+            WireMock.verify(2, WireMock.getRequestedFor(WireMock.urlPathEqualTo("/api/group/id")));
+        } finally {
+            ReflectionTestUtils.setField(groupCache, "groupServiceExecutor", groupServiceExecutor);
+            release.countDown();
+            fullExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Encode votes of a voting item as vote journal records.
+     */
+    byte[] journalRecords(int votingItemId, int... deltas) {
+        ByteBuffer records = ByteBuffer.allocate(deltas.length * Integer.BYTES * 2);
+        for (int delta : deltas) {
+            records.putInt(votingItemId).putInt(delta);
+        }
+        return records.array();
+    }
+
+    /**
+     * Send a request to create a poll with the given number of voting items, and return the number of SQL statements it issued.
+     */
+    long countStatementsOfCreatePoll(int nofVotingItems) {
+        List<String> votingItems = new ArrayList<>();
+        for (int i = 0; i < nofVotingItems; i++) {
+            votingItems.add("Option " + i);
+        }
+        String requestBody = String.format("""
+                {
+                  "title": "Poll with %d options",
+                  "description": "Pick one",
+                  "nofAnswersAllowed": 1,
+                  "creatorId": "%s",
+                  "groupId": "communication",
+                  "deadline": "2099-12-22T10:00:00.000Z",
+                  "votingItems": %s
+                }
+                """, nofVotingItems, userId, gson.toJson(votingItems));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        PollResponse pollResponse = tryToCreatePollAndAssertStatusCode(requestBody, HttpStatus.CREATED).as(PollResponse.class);
+        assertEquals(nofVotingItems, pollResponse.votingItems().size());
+
+        return statistics.getPrepareStatementCount();
+    }
 }
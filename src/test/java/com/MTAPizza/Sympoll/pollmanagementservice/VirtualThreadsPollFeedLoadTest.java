@@ -0,0 +1,13 @@
+package com.MTAPizza.Sympoll.pollmanagementservice;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * {@link PollFeedLoadTest} with requests and calls to the other services on virtual threads, skipped before JDK 21.
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsPollFeedLoadTest extends PollFeedLoadTest {
+}
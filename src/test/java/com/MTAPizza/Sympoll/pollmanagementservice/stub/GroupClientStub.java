@@ -10,11 +10,12 @@ public class GroupClientStub {
         stubUserHasPermission(userId);
         stubGetGroupName();
         stubGetAllUserGroups(userId);
+        stubGetGroupDataList();
     }
 
     private static void stubGroupIdExists() {
         stubFor(get(urlPathEqualTo("/api/group/id"))
-                .withQueryParam("groupId", matching("123|social|communication|movies"))
+                .withQueryParam("groupId", matching("123|social|communication|movies|group-[0-9]+"))
                 .willReturn(aResponse()
                         .withHeader("Content-Type", "application/json")
                         .withStatus(200)
@@ -59,4 +60,18 @@ public class GroupClientStub {
                         }
                         """)));
     }
+
+    private static void stubGetGroupDataList() {
+        stubFor(post(urlEqualTo("/api/group/groups-list"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withStatus(200)
+                        .withBody("""
+                        [
+                            { "groupId": "social", "groupName": "Social" },
+                            { "groupId": "communication", "groupName": "Communication" },
+                            { "groupId": "movies", "groupName": "Movies" }
+                        ]
+                        """)));
+    }
 }
@@ -8,6 +8,7 @@ public class UserClientStub {
     public static void initStubs(UUID userId){
         stubUserIdExists(userId);
         stubGetUserById(userId);
+        stubGetUsersListByIds(userId);
     }
 
     private static void stubUserIdExists(UUID userId){
@@ -36,4 +37,21 @@ public class UserClientStub {
                 }
                 """, userId))));
     }
+
+    private static void stubGetUsersListByIds(UUID userId){
+        stubFor(post(urlEqualTo("/api/user/list-by-user-ids"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withStatus(200)
+                        .withBody(String.format("""
+                [
+                  {
+                    "userId": "%s",
+                    "username": "Roy",
+                    "email": "Roy@gmail.com",
+                    "timeCreated": "2024-08-14T10:00:00Z"
+                  }
+                ]
+                """, userId))));
+    }
 }
@@ -20,6 +20,31 @@ CREATE TABLE voting_item_options
     vote_count        INT
 );
 
+-- Voting item IDs are allocated by the service in blocks of 50 (the allocation size of VotingItem's ID generator),
+-- so the voting items of a new poll are inserted in a single JDBC batch
+ALTER SEQUENCE voting_item_options_voting_item_id_seq INCREMENT BY 50;
+
+-- Extra counter rows of hot voting items (vote.counter-slots.enabled), a voting item's vote count is its own count plus the sum of its slots
+CREATE TABLE voting_item_counter_slots
+(
+    voting_item_id    INT REFERENCES voting_item_options (voting_item_id) ON DELETE CASCADE,
+    slot              INT,
+    vote_count        INT,
+    PRIMARY KEY (voting_item_id, slot)
+);
+
+-- Vote journal segments whose votes were written to the database by the write-behind buffer,
+-- recorded in the same transaction as the votes, so a segment is never replayed twice
+CREATE TABLE applied_vote_journal_segments
+(
+    segment_id        VARCHAR(255) PRIMARY KEY
+);
+
+CREATE INDEX idx_polls_group_id_time_created ON polls (group_id, time_created DESC, poll_id DESC);
+CREATE INDEX idx_polls_time_created ON polls (time_created DESC, poll_id DESC);
+-- Voting items are loaded, deleted and checked by the polls' foreign key by their poll
+CREATE INDEX idx_voting_item_options_poll_id ON voting_item_options (poll_id);
+
 -- Insert sample data into polls table
 INSERT INTO polls (poll_id, title, description, nof_answers_allowed, creator_id, group_id, time_created, time_updated, deadline) VALUES
                                                                                                                                      ('71c7f8b5-48b3-4e3e-9f76-dc6bbf1e1234', 'Favorite Social Media Platform', 'Vote for your favorite social media platform.', 1, 'b1f8e925-2129-473d-bc09-b3a2a331f839', 'social', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP + INTERVAL '30 days'),